@@ -0,0 +1,36 @@
+package wood.benchmark.jmh;
+
+import wood.game.GameEngine;
+import wood.game.TurnAction;
+import wood.strategy.RandomStrategy;
+
+import java.util.Random;
+
+/**
+ * Games set up for benchmarks to measure against
+ */
+final class BenchmarkGames {
+    // Far enough in that both players have planted and cut trees, and the board has its usual mix of tiles
+    static final int MIDGAME_TURNS = 300;
+
+    private static final TurnAction[] allTurnActions = TurnAction.values();
+
+    private BenchmarkGames() {
+    }
+
+    /**
+     * @param boardSize The size of the board
+     * @param worldSeed The world seed, which also picks the actions played
+     * @param turns How many turns to play
+     * @return A game with the given number of turns of random actions already played, or fewer if it ended first
+     */
+    static GameEngine playedPartway(int boardSize, long worldSeed, int turns) {
+        GameEngine gameEngine = new GameEngine(boardSize, new RandomStrategy(), new RandomStrategy(), worldSeed);
+        Random random = new Random(worldSeed);
+        for(int i = 0; i < turns && !gameEngine.isGameOver(); i++) {
+            gameEngine.advanceTurn(allTurnActions[random.nextInt(allTurnActions.length)],
+                                   allTurnActions[random.nextInt(allTurnActions.length)]);
+        }
+        return gameEngine;
+    }
+}
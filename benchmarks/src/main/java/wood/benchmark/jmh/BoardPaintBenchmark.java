@@ -0,0 +1,92 @@
+package wood.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import wood.game.GameBoard;
+import wood.game.WoodPlayer;
+import wood.graphics.ImageManager;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Painting a board part way through a game into an offscreen image the size of the default GUI, both the whole
+ *  board the way GameBoard.paint does it and just the sprites on top of the grass, which is what the board panel
+ *  redraws as tiles change. Run from the project root so the image files can be found
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BoardPaintBenchmark {
+    private static final int PAINTED_PIXELS = 1000;
+
+    @Param({"30", "100", "200"})
+    public int boardSize;
+
+    private GameBoard board;
+    private ImageManager imageManager;
+    private BufferedImage screen;
+    private Graphics2D brush;
+    private int tilePixels;
+
+    @Setup
+    public void setUp() throws IOException {
+        board = BenchmarkGames.playedPartway(boardSize, 1, BenchmarkGames.MIDGAME_TURNS).getBoard();
+        String imagesDirectoryPath = String.join(File.separator, System.getProperty("user.dir"), "src", "wood",
+                                                 "image_files");
+        imageManager = new ImageManager(imagesDirectoryPath);
+        tilePixels = PAINTED_PIXELS / boardSize;
+        imageManager.rescaleImages(tilePixels, tilePixels);
+        screen = new BufferedImage(tilePixels * boardSize, tilePixels * boardSize, BufferedImage.TYPE_INT_RGB);
+        brush = screen.createGraphics();
+
+        // The first paint makes the grass for every location, which only ever happens once
+        board.paint(brush, imageManager);
+    }
+
+    @TearDown
+    public void tearDown() {
+        brush.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintBoard() {
+        board.paint(brush, imageManager);
+        return screen;
+    }
+
+    @Benchmark
+    public BufferedImage drawSprites() {
+        for(int y = 0; y < boardSize; y++) {
+            for(int x = 0; x < boardSize; x++) {
+                String spriteName = board.getTileAtLocation(x, y).getForegroundSpriteName();
+                if(spriteName != null) {
+                    imageManager.drawSprite(brush, spriteName, x * tilePixels, (boardSize - 1 - y) * tilePixels);
+                }
+            }
+        }
+        for(WoodPlayer player : board.getPlayers()) {
+            Point location = player.getLocation();
+            imageManager.drawSprite(brush, player.getSpriteName(), location.x * tilePixels,
+                                    (boardSize - 1 - location.y) * tilePixels);
+        }
+        return screen;
+    }
+}
@@ -0,0 +1,47 @@
+package wood.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wood.game.GameBoard;
+import wood.game.GameEngine;
+import wood.strategy.PlayerBoardView;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameBoard.convertToView on a board part way through a game, which is what the engine does for every strategy on
+ *  every turn outside of headless mode
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertToViewBenchmark {
+    @Param({"30", "100", "500"})
+    public int boardSize;
+
+    private GameEngine gameEngine;
+    private GameBoard board;
+
+    @Setup
+    public void setUp() {
+        gameEngine = BenchmarkGames.playedPartway(boardSize, 1, BenchmarkGames.MIDGAME_TURNS);
+        board = gameEngine.getBoard();
+    }
+
+    @Benchmark
+    public PlayerBoardView convertToView() {
+        return board.convertToView(gameEngine.getRedPlayer(), gameEngine.getBluePlayer());
+    }
+}
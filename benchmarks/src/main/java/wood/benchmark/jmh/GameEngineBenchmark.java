@@ -0,0 +1,44 @@
+package wood.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wood.game.GameEngine;
+import wood.strategy.RandomStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole headless game between two RandomStrategy players, including generating the world. Each call plays the
+ *  next of a fixed cycle of world seeds so the result covers a spread of games but is the same from run to run
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameEngineBenchmark {
+    private static final int SEEDS_IN_CYCLE = 64;
+
+    @Param({"30", "100"})
+    public int boardSize;
+
+    private long nextSeed;
+
+    @Benchmark
+    public int runGameHeadless() {
+        GameEngine gameEngine = new GameEngine(boardSize, new RandomStrategy(), new RandomStrategy(), nextSeed);
+        nextSeed = (nextSeed + 1) % SEEDS_IN_CYCLE;
+        gameEngine.setHeadless(true);
+        gameEngine.runGame();
+        return gameEngine.getRedPlayerScore() + gameEngine.getBluePlayerScore();
+    }
+}
@@ -0,0 +1,99 @@
+package wood.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import wood.game.GameEngine;
+import wood.replay.BinaryReplayFormat;
+import wood.replay.Replay;
+import wood.strategy.RandomStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading the replay of a full length game in the text format and in BinaryReplayFormat, both to a
+ *  temporary file and just the encoding in memory
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+    private Replay replay;
+    private File replayFile;
+    private String replayFilePath;
+    private File binaryReplayFile;
+    private String binaryReplayFilePath;
+    private byte[] binaryReplay;
+
+    @Setup
+    public void setUp() throws IOException {
+        GameEngine gameEngine = new GameEngine(30, new RandomStrategy(), new RandomStrategy(), 1);
+        gameEngine.setHeadless(true);
+        gameEngine.runGame();
+        replay = gameEngine.getReplay();
+
+        replayFile = File.createTempFile("replay-benchmark", ".txt");
+        replayFilePath = replayFile.getPath();
+        Replay.encodeReplayFile(replay, replayFilePath);
+
+        binaryReplayFile = File.createTempFile("replay-benchmark", ".wrp");
+        binaryReplayFilePath = binaryReplayFile.getPath();
+        Replay.encodeBinaryReplayFile(replay, binaryReplayFilePath);
+        binaryReplay = BinaryReplayFormat.encode(replay);
+    }
+
+    @TearDown
+    public void tearDown() {
+        replayFile.delete();
+        binaryReplayFile.delete();
+    }
+
+    @Benchmark
+    public String encodeToString() {
+        return replay.toString();
+    }
+
+    @Benchmark
+    public void encodeToFile() throws IOException {
+        Replay.encodeReplayFile(replay, replayFilePath);
+    }
+
+    @Benchmark
+    public Replay decodeFromFile() throws IOException {
+        return Replay.decodeReplayFile(replayFilePath);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return BinaryReplayFormat.encode(replay);
+    }
+
+    @Benchmark
+    public Replay decodeBinary() {
+        return BinaryReplayFormat.decode(ByteBuffer.wrap(binaryReplay));
+    }
+
+    @Benchmark
+    public void encodeBinaryToFile() throws IOException {
+        Replay.encodeBinaryReplayFile(replay, binaryReplayFilePath);
+    }
+
+    @Benchmark
+    public Replay decodeBinaryFromFile() throws IOException {
+        return Replay.decodeReplayFile(binaryReplayFilePath);
+    }
+}
@@ -0,0 +1,59 @@
+package wood.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wood.competition.WoodPlayerStrategies;
+import wood.game.GameEngine;
+import wood.game.TurnAction;
+import wood.strategy.PlayerBoardView;
+import wood.strategy.RandomStrategy;
+import wood.strategy.WoodPlayerStrategy;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One getTurnAction call for a strategy looking at a board part way through a game. The view stays the same
+ *  between calls, so this is the cost of deciding, not of the game changing under the strategy
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyTurnBenchmark {
+    @Param({"RandomStrategy", "WoodPlayerStrategies"})
+    public String strategyName;
+
+    @Param({"30", "100"})
+    public int boardSize;
+
+    private WoodPlayerStrategy strategy;
+    private PlayerBoardView boardView;
+
+    @Setup
+    public void setUp() {
+        GameEngine gameEngine = BenchmarkGames.playedPartway(boardSize, 1, BenchmarkGames.MIDGAME_TURNS);
+        strategy = strategyName.equals("RandomStrategy") ? new RandomStrategy() : new WoodPlayerStrategies();
+
+        Point startLocation = gameEngine.getBoard().getRedStartTileLocation();
+        strategy.initialize(boardSize, 5, 2000, new Point(startLocation.x, startLocation.y), true, new Random(1));
+        boardView = gameEngine.getBoard().convertToView(gameEngine.getRedPlayer(), gameEngine.getBluePlayer());
+    }
+
+    @Benchmark
+    public TurnAction getTurnAction() {
+        return strategy.getTurnAction(boardView, true);
+    }
+}
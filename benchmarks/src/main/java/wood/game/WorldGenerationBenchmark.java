@@ -0,0 +1,39 @@
+package wood.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WorldGeneration.generateBoard on its own. It lives in wood.game because generateBoard isn't public
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldGenerationBenchmark {
+    private static final int SEEDS_IN_CYCLE = 64;
+
+    @Param({"30", "100", "500", "2000"})
+    public int boardSize;
+
+    private long nextSeed;
+
+    @Benchmark
+    public GameBoard generateBoard() {
+        WorldGeneration worldGeneration = new WorldGeneration(nextSeed);
+        nextSeed = (nextSeed + 1) % SEEDS_IN_CYCLE;
+        return worldGeneration.generateBoard(boardSize);
+    }
+}
@@ -0,0 +1,48 @@
+package wood.benchmark;
+
+import wood.game.GameEngine;
+import wood.strategy.RandomStrategy;
+
+import java.util.Observer;
+
+/**
+ * Compares how many games per second the engine plays in headless mode against the normal observed path,
+ *  using two RandomStrategy players so the engine rather than the strategies dominates the cost
+ */
+public class HeadlessBenchmark {
+    private static final int BOARD_SIZE = 30;
+    private static final int WARMUP_GAMES = 500;
+    private static final int MEASURED_GAMES = 1000;
+
+    public static void main(String[] args) {
+        // Warm up both paths so the JIT has compiled them before anything is measured
+        playGames(WARMUP_GAMES, false);
+        playGames(WARMUP_GAMES, true);
+
+        double observedGamesPerSecond = playGames(MEASURED_GAMES, false);
+        double headlessGamesPerSecond = playGames(MEASURED_GAMES, true);
+
+        System.out.printf("Board size %dx%d, %d games per run%n", BOARD_SIZE, BOARD_SIZE, MEASURED_GAMES);
+        System.out.printf("Observed: %.1f games/second%n", observedGamesPerSecond);
+        System.out.printf("Headless: %.1f games/second (%.2fx)%n", headlessGamesPerSecond,
+                          headlessGamesPerSecond / observedGamesPerSecond);
+    }
+
+    private static double playGames(int numberOfGames, boolean headless) {
+        // The observed path gets a do-nothing observer, the same way the GUI panels are attached in a real game
+        Observer ignoreUpdates = (observable, argument) -> { };
+
+        long startTime = System.nanoTime();
+        for(int i = 0; i < numberOfGames; i++) {
+            GameEngine gameEngine = new GameEngine(BOARD_SIZE, new RandomStrategy(), new RandomStrategy(), i);
+            gameEngine.setHeadless(headless);
+            if(!headless) {
+                gameEngine.addObserver(ignoreUpdates);
+            }
+            gameEngine.runGame();
+        }
+        long elapsedNanoseconds = System.nanoTime() - startTime;
+
+        return numberOfGames / (elapsedNanoseconds / 1e9);
+    }
+}
@@ -0,0 +1,81 @@
+package wood.benchmark;
+
+import wood.game.GameEngine;
+import wood.game.TurnAction;
+import wood.remote.RemoteStrategy;
+import wood.strategy.PlayerBoardView;
+import wood.strategy.RandomStrategy;
+
+import java.util.Arrays;
+
+/**
+ * Measures how long a turn takes for a strategy running in a child JVM through RemoteStrategy, from sending the
+ *  turn to reading the reply. The remote side plays RandomStrategy, which takes next to no time itself, so the
+ *  numbers are almost all protocol and process overhead. One child JVM plays every game, the same way a long
+ *  running competition would reuse it
+ *
+ * Usage: RemoteStrategyBenchmark [boardSize] [games]
+ */
+public class RemoteStrategyBenchmark {
+    private static final int WARMUP_GAMES = 20;
+
+    public static void main(String[] args) {
+        int boardSize = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        try (TimedRemoteStrategy remoteStrategy = new TimedRemoteStrategy()) {
+            for(int i = 0; i < WARMUP_GAMES; i++) {
+                playGame(boardSize, remoteStrategy, i);
+            }
+            remoteStrategy.turnsTimed = 0;
+
+            for(int i = 0; i < games; i++) {
+                playGame(boardSize, remoteStrategy, WARMUP_GAMES + i);
+            }
+
+            long[] turnNanos = Arrays.copyOf(remoteStrategy.turnNanos, remoteStrategy.turnsTimed);
+            Arrays.sort(turnNanos);
+            long totalNanos = 0;
+            for(long nanos : turnNanos) {
+                totalNanos += nanos;
+            }
+
+            System.out.printf("Board size %d, %d turns over %d games%n", boardSize, turnNanos.length, games);
+            System.out.printf("Mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                              totalNanos / 1000.0 / turnNanos.length, percentile(turnNanos, 0.50) / 1000.0,
+                              percentile(turnNanos, 0.99) / 1000.0, turnNanos[turnNanos.length - 1] / 1000.0);
+        }
+    }
+
+    private static void playGame(int boardSize, TimedRemoteStrategy remoteStrategy, long randomSeed) {
+        GameEngine gameEngine = new GameEngine(boardSize, remoteStrategy, new RandomStrategy(), randomSeed);
+        gameEngine.setHeadless(true);
+        gameEngine.runGame();
+        if(gameEngine.getExceptionThrown() != null) {
+            throw new IllegalStateException("The game ended with an exception", gameEngine.getExceptionThrown());
+        }
+    }
+
+    private static long percentile(long[] sortedNanos, double fraction) {
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.round(fraction * (sortedNanos.length - 1)))];
+    }
+
+    private static class TimedRemoteStrategy extends RemoteStrategy {
+        private long[] turnNanos = new long[1024];
+        private int turnsTimed = 0;
+
+        TimedRemoteStrategy() {
+            super(RandomStrategy.class.getName());
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, boolean isRedTurn) {
+            TurnAction action = super.getTurnAction(boardView, isRedTurn);
+            if(turnsTimed == turnNanos.length) {
+                turnNanos = Arrays.copyOf(turnNanos, turnsTimed * 2);
+            }
+            turnNanos[turnsTimed++] = getLastTurnNanos();
+            return action;
+        }
+    }
+}
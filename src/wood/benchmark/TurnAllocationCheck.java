@@ -0,0 +1,142 @@
+package wood.benchmark;
+
+import wood.game.GameEngine;
+import wood.game.TurnAction;
+import wood.item.InventoryItem;
+import wood.strategy.PlayerBoardView;
+import wood.strategy.WoodPlayerStrategy;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Checks that a headless turn only allocates the little it has to once the game is underway, using the JVM's
+ *  per-thread count of allocated bytes. Both players use a strategy that allocates nothing itself, and it reads the
+ *  counter every time it is asked for an action, so the difference between two of its turns is everything the
+ *  engine allocated for one full turn of both players. The only thing a turn has to allocate is a new
+ *  PlayerBoardView for each player, 56 bytes each with compressed references. Now and then the board also grows its
+ *  record of the tiles that changed under views already handed out, or a chunked board allocates the chunk a tile
+ *  is first written in, so single turns can go higher, but none of it depends on the size of the board. Games are
+ *  played on a flat board and on one big enough for chunked storage, and the check exits with status 1 if turns
+ *  on any of them allocated more than MAX_BYTES_PER_TURN on average, which is just above what a turn allocates now.
+ *  Anything that adds garbage to every turn fails it, and anything that copies the board fails it by far. The game
+ *  module's build runs this during the test phase
+ */
+public class TurnAllocationCheck {
+    private static final int[] BOARD_SIZES = {30, 100, 600};
+    private static final int WARMUP_GAMES = 200;
+    private static final int MEASURED_GAMES = 50;
+    // The first turns of each game are skipped, they include one-time setup like making the board's first views
+    private static final int TURNS_TO_SKIP = 5;
+    // Two views are 112 bytes, so this leaves room for the occasional growth and nothing else
+    private static final double MAX_BYTES_PER_TURN = 128;
+
+    private static final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        boolean passed = true;
+        for(int boardSize : BOARD_SIZES) {
+            passed &= measure(boardSize);
+        }
+
+        if(!passed) {
+            System.out.println("FAILED: headless turns are expected to allocate at most " + MAX_BYTES_PER_TURN
+                               + " bytes on average");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * @return True if turns on the board size allocated at most MAX_BYTES_PER_TURN on average
+     */
+    private static boolean measure(int boardSize) {
+        // Let the JIT compile the turn pipeline first, compiling can deoptimize code and allocate while it does
+        for(int i = 0; i < WARMUP_GAMES; i++) {
+            playGame(boardSize, i);
+        }
+
+        long turnsMeasured = 0;
+        long bytesAllocated = 0;
+        long mostBytesInATurn = 0;
+        for(int i = 0; i < MEASURED_GAMES; i++) {
+            AllocationFreeStrategy redStrategy = playGame(boardSize, WARMUP_GAMES + i);
+            turnsMeasured += redStrategy.turnsMeasured;
+            bytesAllocated += redStrategy.bytesAllocated;
+            mostBytesInATurn = Math.max(mostBytesInATurn, redStrategy.mostBytesInATurn);
+        }
+
+        double bytesPerTurn = (double) bytesAllocated / turnsMeasured;
+        System.out.printf("%dx%d: measured %d turns: %d bytes allocated, %.1f bytes per turn, at most %d bytes in a "
+                          + "turn%n", boardSize, boardSize, turnsMeasured, bytesAllocated, bytesPerTurn,
+                          mostBytesInATurn);
+        return bytesPerTurn <= MAX_BYTES_PER_TURN;
+    }
+
+    private static AllocationFreeStrategy playGame(int boardSize, long randomSeed) {
+        AllocationFreeStrategy redStrategy = new AllocationFreeStrategy();
+        GameEngine gameEngine = new GameEngine(boardSize, redStrategy, new AllocationFreeStrategy(), randomSeed);
+        gameEngine.setHeadless(true);
+        gameEngine.runGame();
+        return redStrategy;
+    }
+
+    /**
+     * Picks random actions with its own xorshift generator so that choosing an action doesn't allocate, and
+     *  measures how much the thread allocated since the last time it was asked for an action
+     */
+    private static class AllocationFreeStrategy implements WoodPlayerStrategy {
+        private static final TurnAction[] allActions = TurnAction.values();
+
+        private long randomState;
+        private int turnNumber;
+        private long lastAllocatedBytes;
+        private long turnsMeasured;
+        private long bytesAllocated;
+        private long mostBytesInATurn;
+
+        @Override
+        public void initialize(int boardSize, int maxInventorySize, int winningScore, Point startTileLocation,
+                               boolean isRedPlayer, Random random) {
+            this.randomState = random.nextLong() | 1;
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, boolean isRedTurn) {
+            long allocatedBytes = threadBean.getCurrentThreadAllocatedBytes();
+            if(turnNumber > TURNS_TO_SKIP) {
+                long allocatedThisTurn = allocatedBytes - lastAllocatedBytes;
+                turnsMeasured++;
+                bytesAllocated += allocatedThisTurn;
+                mostBytesInATurn = Math.max(mostBytesInATurn, allocatedThisTurn);
+            }
+            turnNumber++;
+
+            randomState ^= randomState << 13;
+            randomState ^= randomState >>> 7;
+            randomState ^= randomState << 17;
+            TurnAction action = allActions[(int) ((randomState >>> 1) % allActions.length)];
+
+            // Read the counter last so the measurement starts after this strategy's own work
+            lastAllocatedBytes = threadBean.getCurrentThreadAllocatedBytes();
+            return action;
+        }
+
+        @Override
+        public void receiveItem(InventoryItem itemReceived) {
+
+        }
+
+        @Override
+        public String getName() {
+            return "AllocationFreeStrategy";
+        }
+
+        @Override
+        public void endRound(int totalRedPoints, int totalBluePoints) {
+
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package wood.competition;
 
-import javafx.collections.ObservableArray;
 import wood.game.GameBoard;
 import wood.game.TurnAction;
 import wood.game.WoodPlayer;
@@ -14,7 +13,6 @@ import wood.tiles.Tile;
 import wood.tiles.TileType;
 
 import java.awt.*;
-import java.sql.SQLOutput;
 import java.util.ArrayList;
 import java.util.Objects;
 import java.util.Random;
@@ -152,107 +150,33 @@ public class WoodPlayerStrategies implements WoodPlayerStrategy {
 
     // check if board has seed
     public boolean hasSeed(PlayerBoardView boardView) {
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boardView.getTileTypeAtLocation(i, j).equals(TileType.SEED)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return boardView.getTileCount(TileType.SEED) > 0;
     }
 
     // check if board has a tree
     public boolean hasTree(PlayerBoardView boardView) {
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boardView.getTileTypeAtLocation(i, j).equals(TileType.TREE)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return boardView.getTileCount(TileType.TREE) > 0;
     }
 
     // furthest Tree
     public Point furthestTree(PlayerBoardView boardView) {
-        ArrayList<Point> trees = new ArrayList<>();
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boardView.getTileTypeAtLocation(i, j).equals(TileType.TREE)) {
-                    trees.add(new Point(i, j));
-                }
-            }
-        }
-        Point far = trees.get(0);
-        for (int i = 0; i < trees.size(); i++) {
-            if (DistanceUtilities.getManhattanDistance(trees.get(i), boardView.getYourLocation())
-                    < DistanceUtilities.getManhattanDistance(far, boardView.getYourLocation())) {
-                far = trees.get(i);
-            }
-        }
-        return far;
+        return boardView.getClosestTileOfType(TileType.TREE);
     }
 
     // closest Tree
     public Point closestTree(PlayerBoardView boardView) {
-        ArrayList<Point> trees = new ArrayList<>();
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boardView.getTileTypeAtLocation(i , j).equals(TileType.TREE)) {
-                    trees.add(new Point(i, j));
-                }
-            }
-        }
-        Point close = trees.get(0);
-        for (int i = 0; i < trees.size(); i++) {
-            if (DistanceUtilities.getManhattanDistance(trees.get(i), boardView.getYourLocation())
-                    < DistanceUtilities.getManhattanDistance(close, boardView.getYourLocation())) {
-                close = trees.get(i);
-            }
-        }
-        return close;
+        return boardView.getClosestTileOfType(TileType.TREE);
     }
 
     // closest seed
     public Point closestSeed(PlayerBoardView boardView) {
-        ArrayList<Point> seeds = new ArrayList<>();
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boardView.getTileTypeAtLocation(i, j).equals(TileType.SEED)) {
-                    seeds.add(new Point(i, j));
-                }
-            }
-        }
-        Point close = seeds.get(0);
-        for (int i = 0; i < seeds.size(); i++) {
-            if (DistanceUtilities.getManhattanDistance(seeds.get(i), boardView.getYourLocation())
-                    < DistanceUtilities.getManhattanDistance(close, boardView.getYourLocation())) {
-                close = seeds.get(i);
-            }
-        }
-        return close;
+        return boardView.getClosestTileOfType(TileType.SEED);
     }
 
 
     // check closest empty
     public Point closestEmpty(PlayerBoardView boardView) {
-        ArrayList<Point> empty = new ArrayList<>();
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boardView.getTileTypeAtLocation(i, j).equals(TileType.EMPTY)) {
-                    empty.add(new Point(i, j));
-                }
-            }
-        }
-        Point close = empty.get(0);
-        for (int i = 0; i < empty.size(); i++) {
-            if (DistanceUtilities.getManhattanDistance(empty.get(i), boardView.getYourLocation())
-                    < DistanceUtilities.getManhattanDistance(close, boardView.getYourLocation())) {
-                close = empty.get(i);
-            }
-        }
-        return close;
+        return boardView.getClosestTileOfType(TileType.EMPTY);
     }
 
     // check full inventory
@@ -308,15 +232,7 @@ public class WoodPlayerStrategies implements WoodPlayerStrategy {
 
     // count trees
     public int treeCounts(PlayerBoardView boardView) {
-        int count = 0;
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boardView.getTileTypeAtLocation(i, j).equals(TileType.TREE)) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return boardView.getTileCount(TileType.TREE);
     }
 
 
@@ -330,15 +246,7 @@ public class WoodPlayerStrategies implements WoodPlayerStrategy {
 
     // count seeds
     public int seedCounts(PlayerBoardView boardView) {
-        int count = 0;
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boardView.getTileTypeAtLocation(i, j).equals(TileType.SEED)) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return boardView.getTileCount(TileType.SEED);
     }
 
     // check cut tree
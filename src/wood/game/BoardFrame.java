@@ -0,0 +1,161 @@
+package wood.game;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * An immutable record of what a display draws for one turn: the sprite on top of the grass at each location that
+ *  changed since the frame before, where the players are and which way they face, and both scores. The engine
+ *  publishes a new frame after every turn, see GameEngine.getLatestFrame, so a display on another thread can draw
+ *  the latest frame whenever it gets round to it without ever seeing the board half way through a turn, and the
+ *  engine never has to wait for it. The first frame holds every tile, and each frame after only holds the tiles
+ *  that changed since, see GameBoard.trackChangedTiles, so publishing a frame costs as much as what changed in the
+ *  turn rather than as much as the whole board. Each frame links to the one published after it, see getNextFrame,
+ *  so a display keeps its own copy of the sprites and brings it up to date by going through every frame since the
+ *  last one it drew, even the ones it never got round to drawing
+ */
+public class BoardFrame {
+    private int turnNumber;
+    private int boardSize;
+    private int[] changedTiles;
+    private String[] changedSpriteNames;
+    private volatile BoardFrame nextFrame;
+    private Point[] playerLocations;
+    private String[] playerSpriteNames;
+    private int redScore;
+    private int blueScore;
+
+    private BoardFrame(int turnNumber, int boardSize, int[] changedTiles, String[] changedSpriteNames,
+                       List<WoodPlayer> players) {
+        this.turnNumber = turnNumber;
+        this.boardSize = boardSize;
+        this.changedTiles = changedTiles;
+        this.changedSpriteNames = changedSpriteNames;
+        this.nextFrame = null;
+        this.playerLocations = new Point[players.size()];
+        this.playerSpriteNames = new String[players.size()];
+        for(int i = 0; i < players.size(); i++) {
+            WoodPlayer player = players.get(i);
+            Point location = player.getLocation();
+            playerLocations[i] = new Point(location.x, location.y);
+            playerSpriteNames[i] = player.getSpriteName();
+            if(player.isRedPlayer()) {
+                redScore = player.getScore();
+            } else {
+                blueScore = player.getScore();
+            }
+        }
+    }
+
+    /**
+     * Captures the whole board, which starts the board keeping track of its changed tiles for the frames after
+     *
+     * @param board The board to capture
+     * @param turnNumber The number of turns played so far
+     * @return A frame where every tile counts as changed
+     */
+    static BoardFrame capture(GameBoard board, int turnNumber) {
+        // Anything that changed before now is in this frame along with everything else
+        board.trackChangedTiles().takeChanged();
+
+        int boardSize = board.getSize();
+        int[] allTiles = new int[boardSize * boardSize];
+        for(int index = 0; index < allTiles.length; index++) {
+            allTiles[index] = index;
+        }
+        return new BoardFrame(turnNumber, boardSize, allTiles, lookUpSpriteNames(board, allTiles),
+                              board.getPlayers());
+    }
+
+    /**
+     * Captures the tiles that changed on the board since this frame, and links this frame to the new one
+     *
+     * @param board The board this frame was captured from
+     * @param turnNumber The number of turns played so far
+     * @return The next frame
+     */
+    BoardFrame next(GameBoard board, int turnNumber) {
+        int[] changed = board.trackChangedTiles().takeChanged();
+        BoardFrame frame = new BoardFrame(turnNumber, boardSize, changed, lookUpSpriteNames(board, changed), board.getPlayers());
+        // Linked before the engine publishes it, so whoever is handed the new frame can always reach it from here
+        nextFrame = frame;
+        return frame;
+    }
+
+    private static String[] lookUpSpriteNames(GameBoard board, int[] tiles) {
+        int boardSize = board.getSize();
+        String[] spriteNames = new String[tiles.length];
+        for(int i = 0; i < tiles.length; i++) {
+            spriteNames[i] = board.getTileAtLocation(tiles[i] % boardSize, tiles[i] / boardSize)
+                                  .getForegroundSpriteName();
+        }
+        return spriteNames;
+    }
+
+    /**
+     * @return The frame published straight after this one, or null if there isn't one yet
+     */
+    public BoardFrame getNextFrame() {
+        return nextFrame;
+    }
+
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * @return How many tiles changed since the frame before this one, every tile for the first frame
+     */
+    public int getNumberOfChangedTiles() {
+        return changedTiles.length;
+    }
+
+    /**
+     * @param change Which of this frame's changed tiles, from 0 up to getNumberOfChangedTiles
+     * @return The row-major index (y * size + x) of the tile
+     */
+    public int getChangedTile(int change) {
+        return changedTiles[change];
+    }
+
+    /**
+     * @param change Which of this frame's changed tiles, from 0 up to getNumberOfChangedTiles
+     * @return The name of the sprite now drawn over the tile's grass, see Tile.getForegroundSpriteName, or null if
+     *          there is nothing to draw
+     */
+    public String getChangedSpriteName(int change) {
+        return changedSpriteNames[change];
+    }
+
+    public int getNumberOfPlayers() {
+        return playerLocations.length;
+    }
+
+    /**
+     * @param player The player's position in the board's list of players, see GameBoard.getPlayers
+     * @return Where the player was standing
+     */
+    public Point getPlayerLocation(int player) {
+        return new Point(playerLocations[player]);
+    }
+
+    /**
+     * @param player The player's position in the board's list of players, see GameBoard.getPlayers
+     * @return The name of the sprite for the direction the player was facing, see WoodPlayer.getSpriteName
+     */
+    public String getPlayerSpriteName(int player) {
+        return playerSpriteNames[player];
+    }
+
+    public int getRedScore() {
+        return redScore;
+    }
+
+    public int getBlueScore() {
+        return blueScore;
+    }
+}
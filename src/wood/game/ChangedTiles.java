@@ -0,0 +1,46 @@
+package wood.game;
+
+import java.util.Arrays;
+
+/**
+ * The tiles of a board that have changed since they were last taken, for a display that only redraws what changed,
+ *  see GameBoard.trackChangedTiles. A tile that changes several times before it's taken is only listed once.
+ *  The engine marks tiles while the display takes them on another thread, so both are synchronized
+ */
+public class ChangedTiles {
+    private long[] isChanged;
+    private int[] changedIndices;
+    private int numberChanged;
+
+    ChangedTiles(int numberOfTiles) {
+        this.isChanged = new long[(numberOfTiles + 63) >>> 6];
+        this.changedIndices = new int[numberOfTiles];
+        this.numberChanged = 0;
+    }
+
+    /**
+     * @param index The row-major index (y * size + x) of the tile that changed
+     */
+    synchronized void mark(int index) {
+        long bit = 1L << index;
+        if((isChanged[index >>> 6] & bit) == 0) {
+            isChanged[index >>> 6] |= bit;
+            changedIndices[numberChanged++] = index;
+        }
+    }
+
+    /**
+     * Takes every tile that changed since the last call, after which none of them count as changed until they
+     *  change again
+     *
+     * @return The row-major indices (y * size + x) of the tiles that changed, in the order they first changed
+     */
+    public synchronized int[] takeChanged() {
+        int[] changed = Arrays.copyOf(changedIndices, numberChanged);
+        for(int i = 0; i < numberChanged; i++) {
+            isChanged[changedIndices[i] >>> 6] &= ~(1L << changedIndices[i]);
+        }
+        numberChanged = 0;
+        return changed;
+    }
+}
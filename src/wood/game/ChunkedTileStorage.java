@@ -0,0 +1,116 @@
+package wood.game;
+
+import java.util.Arrays;
+
+/**
+ * Stores the board as square chunks of tiles that are only allocated the first time something is written to them,
+ *  so untouched parts of a very large board cost nothing and memory grows with the number of tiles in use rather
+ *  than with the area of the board. Reading a tile in a chunk that was never written gives the initial type.
+ *  Copies share chunks until one side writes to a shared chunk, at which point that side gets its own copy of it
+ */
+class ChunkedTileStorage implements TileStorage {
+    private static final int CHUNK_BITS = 4;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private int boardSize;
+    private int chunksPerRow;
+    private byte initialType;
+    private Chunk[] chunks;
+    private Object ownerToken;
+
+    /**
+     * @param boardSize The length and width of the square board
+     * @param initialType The TileType ordinal every tile starts out as
+     */
+    ChunkedTileStorage(int boardSize, byte initialType) {
+        this.boardSize = boardSize;
+        this.chunksPerRow = (boardSize + CHUNK_MASK) >> CHUNK_BITS;
+        this.initialType = initialType;
+        this.chunks = new Chunk[chunksPerRow * chunksPerRow];
+        this.ownerToken = new Object();
+    }
+
+    private ChunkedTileStorage(ChunkedTileStorage original) {
+        this.boardSize = original.boardSize;
+        this.chunksPerRow = original.chunksPerRow;
+        this.initialType = original.initialType;
+        this.chunks = original.chunks.clone();
+        this.ownerToken = new Object();
+    }
+
+    @Override
+    public byte getType(int index) {
+        Chunk chunk = chunks[chunkIndexOf(index)];
+        return (chunk == null) ? initialType : chunk.tileTypes[offsetInChunk(index)];
+    }
+
+    @Override
+    public int getValue(int index) {
+        Chunk chunk = chunks[chunkIndexOf(index)];
+        return (chunk == null) ? 0 : chunk.tileValues[offsetInChunk(index)];
+    }
+
+    @Override
+    public void setTile(int index, byte type, int value) {
+        int chunkIndex = chunkIndexOf(index);
+        Chunk chunk = chunks[chunkIndex];
+        if(chunk == null) {
+            if(type == initialType && value == 0) {
+                // Writing what's already implied doesn't need a chunk
+                return;
+            }
+            chunk = new Chunk(ownerToken, initialType);
+            chunks[chunkIndex] = chunk;
+        } else if(chunk.ownerToken != ownerToken) {
+            chunk = new Chunk(ownerToken, chunk);
+            chunks[chunkIndex] = chunk;
+        }
+
+        int offset = offsetInChunk(index);
+        chunk.tileTypes[offset] = type;
+        chunk.tileValues[offset] = value;
+    }
+
+    @Override
+    public TileStorage copy() {
+        // Neither side owns the chunks that exist now, so whichever writes to one first copies it
+        ownerToken = new Object();
+        return new ChunkedTileStorage(this);
+    }
+
+    private int chunkIndexOf(int index) {
+        int x = index % boardSize;
+        int y = index / boardSize;
+        return (y >> CHUNK_BITS) * chunksPerRow + (x >> CHUNK_BITS);
+    }
+
+    private int offsetInChunk(int index) {
+        int x = index % boardSize;
+        int y = index / boardSize;
+        return ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+    }
+
+    /**
+     * A CHUNK_SIZE by CHUNK_SIZE square of tiles. Only the storage holding the chunk's owner token writes to it, any
+     *  other storage sharing it makes its own copy first
+     */
+    private static class Chunk {
+        private Object ownerToken;
+        private byte[] tileTypes;
+        private int[] tileValues;
+
+        private Chunk(Object ownerToken, byte initialType) {
+            this.ownerToken = ownerToken;
+            this.tileTypes = new byte[CHUNK_SIZE * CHUNK_SIZE];
+            this.tileValues = new int[CHUNK_SIZE * CHUNK_SIZE];
+            Arrays.fill(tileTypes, initialType);
+        }
+
+        private Chunk(Object ownerToken, Chunk original) {
+            this.ownerToken = ownerToken;
+            this.tileTypes = original.tileTypes.clone();
+            this.tileValues = original.tileValues.clone();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package wood.game;
+
+/**
+ * Keeps the locations of the empty tiles inside one rectangle of the board so a random empty tile in it can be
+ *  picked in O(1). Locations are row-major tile indices, the same indices GameBoard uses for its arrays. The board
+ *  adds and removes locations as tiles inside the rectangle stop or start being empty, and both are O(1) the same
+ *  way they are in TileLocationIndex
+ */
+class EmptyTileRegion {
+    private int boardSize;
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
+    private int[] emptyLocations;
+    private int emptyCount;
+    private int[] slotOfTile;
+
+    /**
+     * Creates a region with no empty tiles in it, the board adds the ones that are already empty
+     *
+     * @param boardSize The length and width of the board the region is on
+     * @param minX The smallest x coordinate in the region
+     * @param minY The smallest y coordinate in the region
+     * @param maxX The largest x coordinate in the region
+     * @param maxY The largest y coordinate in the region
+     */
+    EmptyTileRegion(int boardSize, int minX, int minY, int maxX, int maxY) {
+        this.boardSize = boardSize;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+
+        int area = (maxX - minX + 1) * (maxY - minY + 1);
+        this.emptyLocations = new int[area];
+        this.emptyCount = 0;
+        this.slotOfTile = new int[area];
+    }
+
+    boolean hasBounds(int minX, int minY, int maxX, int maxY) {
+        return this.minX == minX && this.minY == minY && this.maxX == maxX && this.maxY == maxY;
+    }
+
+    boolean contains(int x, int y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    void addEmptyTile(int location) {
+        slotOfTile[offsetOf(location)] = emptyCount;
+        emptyLocations[emptyCount++] = location;
+    }
+
+    void removeEmptyTile(int location) {
+        // Move the last empty location into the slot this tile is leaving
+        int freedSlot = slotOfTile[offsetOf(location)];
+        int lastLocation = emptyLocations[--emptyCount];
+        emptyLocations[freedSlot] = lastLocation;
+        slotOfTile[offsetOf(lastLocation)] = freedSlot;
+    }
+
+    int countEmptyTiles() {
+        return emptyCount;
+    }
+
+    /**
+     * @param slot A number from 0 (inclusive) to countEmptyTiles() (exclusive)
+     * @return The row-major index of one of the empty tiles in this region
+     */
+    int getEmptyTile(int slot) {
+        return emptyLocations[slot];
+    }
+
+    private int offsetOf(int location) {
+        int x = location % boardSize;
+        int y = location / boardSize;
+        return (y - minY) * (maxX - minX + 1) + (x - minX);
+    }
+}
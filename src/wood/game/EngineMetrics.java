@@ -0,0 +1,65 @@
+package wood.game;
+
+import java.io.PrintStream;
+
+/**
+ * A LatencyHistogram for each EnginePhase. A GameEngine with metrics enabled keeps one for the whole game and one
+ *  for each player, and TournamentRunner adds up the ones from every match. Phases a metrics object never saw, like
+ *  BOARD_UPDATE for a single player, are simply empty
+ */
+public class EngineMetrics {
+    private static final EnginePhase[] allPhases = EnginePhase.values();
+    private static final double[] summaryPercentiles = {50, 90, 99, 99.9};
+
+    private LatencyHistogram[] histograms;
+
+    public EngineMetrics() {
+        this.histograms = new LatencyHistogram[allPhases.length];
+        for(int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public void record(EnginePhase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+    }
+
+    public LatencyHistogram getHistogram(EnginePhase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /**
+     * Adds every duration recorded by another EngineMetrics to this one, phase by phase
+     *
+     * @param other The metrics to add, which are left unchanged
+     */
+    public void merge(EngineMetrics other) {
+        for(int i = 0; i < histograms.length; i++) {
+            histograms[i].merge(other.histograms[i]);
+        }
+    }
+
+    /**
+     * Prints a table with a row for every phase that recorded anything, all times in microseconds
+     *
+     * @param output Where to print the table
+     * @param title A heading for the table, like the name of the strategy the metrics are for
+     */
+    public void printSummary(PrintStream output, String title) {
+        output.println(title);
+        output.printf("  %-16s %10s %10s %10s %10s %10s %10s %10s%n", "phase", "count", "mean", "p50", "p90", "p99",
+                      "p99.9", "max");
+        for(EnginePhase phase : allPhases) {
+            LatencyHistogram histogram = getHistogram(phase);
+            if(histogram.getCount() == 0) {
+                continue;
+            }
+
+            output.printf("  %-16s %10d %10.2f", phase, histogram.getCount(), histogram.getMeanNanos() / 1000);
+            for(double percentile : summaryPercentiles) {
+                output.printf(" %10.2f", histogram.getValueAtPercentile(percentile) / 1000.0);
+            }
+            output.printf(" %10.2f%n", histogram.getMaxNanos() / 1000.0);
+        }
+    }
+}
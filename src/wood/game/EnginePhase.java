@@ -0,0 +1,19 @@
+package wood.game;
+
+/**
+ * The parts of a turn that EngineMetrics times separately
+ */
+public enum EnginePhase {
+    // Making or updating the PlayerBoardView a strategy is given
+    BUILD_VIEW,
+    // The strategy's getTurnAction call, including the hand-off to the watchdog thread when time limits are set
+    GET_TURN_ACTION,
+    // Moving a player for one of the move actions
+    MOVE,
+    // Picking up, planting or cutting on the player's tile, not counting any seed respawn it causes
+    ACTION_ON_TILE,
+    // Generating a new seed tile after one left the board
+    SEED_RESPAWN,
+    // Growing every tree at the end of the turn
+    BOARD_UPDATE
+}
@@ -0,0 +1,61 @@
+package wood.game;
+
+import java.util.Arrays;
+
+/**
+ * Stores every tile of the board in one byte array of types and one int array of values, which is the fastest
+ *  storage for the board sizes matches are normally played on. Copies share both arrays until either side writes a
+ *  tile, at which point that side gets its own copy of them, so forking a game doesn't copy the board up front
+ */
+class FlatTileStorage implements TileStorage {
+    private byte[] tileTypes;
+    private int[] tileValues;
+    private boolean shared;
+
+    /**
+     * @param numberOfTiles The number of tiles on the board
+     * @param initialType The TileType ordinal every tile starts out as
+     */
+    FlatTileStorage(int numberOfTiles, byte initialType) {
+        this.tileTypes = new byte[numberOfTiles];
+        this.tileValues = new int[numberOfTiles];
+        Arrays.fill(tileTypes, initialType);
+        this.shared = false;
+    }
+
+    private FlatTileStorage(FlatTileStorage original) {
+        this.tileTypes = original.tileTypes;
+        this.tileValues = original.tileValues;
+        this.shared = true;
+    }
+
+    @Override
+    public byte getType(int index) {
+        return tileTypes[index];
+    }
+
+    @Override
+    public int getValue(int index) {
+        return tileValues[index];
+    }
+
+    @Override
+    public void setTile(int index, byte type, int value) {
+        if(shared) {
+            // Another storage may still be reading these, so write to copies of our own from now on
+            tileTypes = tileTypes.clone();
+            tileValues = tileValues.clone();
+            shared = false;
+        }
+        tileTypes[index] = type;
+        tileValues[index] = value;
+    }
+
+    @Override
+    public TileStorage copy() {
+        // Neither side owns the arrays now, so whichever writes first copies them. If both write, the one that goes
+        // second copies arrays nothing else is using any more, which costs a copy but is never wrong
+        shared = true;
+        return new FlatTileStorage(this);
+    }
+}
@@ -1,23 +1,255 @@
 package wood.game;
 
 import wood.graphics.ImageManager;
+import wood.item.InventoryItem;
+import wood.item.ItemType;
+import wood.item.SeedItem;
+import wood.item.WoodItem;
 import wood.strategy.PlayerBoardView;
+import wood.strategy.SimulationSource;
+import wood.strategy.TileTypeSource;
+import wood.tiles.EmptyTile;
+import wood.tiles.SeedTile;
+import wood.tiles.StartTile;
 import wood.tiles.Tile;
 import wood.tiles.TileType;
+import wood.tiles.TreeTile;
+import wood.util.DistanceUtilities;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * The board is stored as primitives indexed row-major by (y * size + x) rather than as Tile objects:
+ *  one byte for the TileType of every tile and one int for its value (the initial value of a seed, or for a tree its
+ *  wood value minus the number of turns the board had been updated when it was planted, so trees grow without
+ *  being touched every turn). Tile objects are only built when something asks for one through getTileAtLocation.
+ *  Boards of CHUNKED_STORAGE_MIN_SIZE or more keep their tiles in lazily allocated chunks, so a huge board that is
+ *  mostly empty only pays for the tiles in use.
+ *  A TileLocationIndex tracks where every type of tile is so counting and searching for tiles doesn't scan the board,
+ *  and EmptyTileRegions track the empty tiles of any rectangles world generation keeps respawning seeds in.
+ *  A Zobrist hash of the tiles and turn number is kept up to date with every change, see ZobristKeys
+ */
 public class GameBoard {
-    private Tile[][] board;
+    private static final TileType[] allTileTypes = TileType.values();
+    private static final byte EMPTY = (byte) TileType.EMPTY.ordinal();
+    private static final byte START = (byte) TileType.START.ordinal();
+    private static final byte SEED = (byte) TileType.SEED.ordinal();
+    private static final byte TREE = (byte) TileType.TREE.ordinal();
+    // Up to this many closest tiles are picked out in one pass over the tiles of the type instead of sorting them all
+    private static final int MAX_TILES_TO_SELECT = 32;
+    public static final int CHUNKED_STORAGE_MIN_SIZE = 512;
+    // Locations are numbered y * size + x in an int, which the number of tiles on any bigger board would overflow
+    public static final int MAX_BOARD_SIZE = 46340;
+
+    private int size;
+    private TileStorage tiles;
+    private TileLocationIndex locationIndex;
+    private List<EmptyTileRegion> emptyTileRegions;
+    private double[] seedMultiplierByDistance;
+    private int turnsUpdated;
+    private long stateHash;
     private Point redStartLocation;
     private Point blueStartLocation;
+    private List<WoodPlayer> players;
+    private LiveTileTypes issuedTileTypes;
+    private ChangedTiles changedTiles;
+
+    /**
+     * Creates a board of the specified size with every tile empty, using chunked storage if the board is at least
+     *  CHUNKED_STORAGE_MIN_SIZE tiles wide
+     *
+     * @param boardSize The length and width of the square board
+     * @throws IllegalArgumentException If the size is less than 1 or more than MAX_BOARD_SIZE
+     */
+    public GameBoard(int boardSize) {
+        this(boardSize, boardSize >= CHUNKED_STORAGE_MIN_SIZE);
+    }
+
+    /**
+     * Creates a board of the specified size with every tile empty
+     *
+     * @param boardSize The length and width of the square board
+     * @param useChunkedStorage True to only allocate memory for the parts of the board that are not empty, which
+     *                          makes very large boards possible at the cost of slightly slower tile access and
+     *                          respawning seeds in crowded regions
+     * @throws IllegalArgumentException If the size is less than 1 or more than MAX_BOARD_SIZE
+     */
+    public GameBoard(int boardSize, boolean useChunkedStorage) {
+        if(boardSize < 1 || boardSize > MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_BOARD_SIZE + ", was "
+                                               + boardSize);
+        }
+        this.size = boardSize;
+        int numberOfTiles = boardSize * boardSize;
+        if(useChunkedStorage) {
+            // Empty tiles are left implicit, so neither the storage nor the index keeps anything for them
+            this.tiles = new ChunkedTileStorage(boardSize, EMPTY);
+            this.locationIndex = new TileLocationIndex(numberOfTiles, allTileTypes.length, EMPTY, false);
+        } else {
+            this.tiles = new FlatTileStorage(numberOfTiles, EMPTY);
+            this.locationIndex = new TileLocationIndex(numberOfTiles, allTileTypes.length, EMPTY, true);
+        }
+        this.emptyTileRegions = new ArrayList<>(4);
+
+        // A seed's value multiplier only depends on its distance from a start tile, so it can be computed up front
+        this.seedMultiplierByDistance = new double[2 * boardSize - 1];
+        for(int distance = 0; distance < seedMultiplierByDistance.length; distance++) {
+            seedMultiplierByDistance[distance] = SeedTile.computeValueMultiplier(distance, boardSize);
+        }
+
+        this.turnsUpdated = 0;
+        this.stateHash = ZobristKeys.turnKey(0);
+        this.players = new ArrayList<>(2);
+        this.issuedTileTypes = null;
+        this.changedTiles = null;
+    }
+
+    private GameBoard(GameBoard original) {
+        this.size = original.size;
+        this.tiles = original.tiles.copy();
+        this.locationIndex = original.locationIndex.copy();
+        // Regions only serve world generation's initial seeds, see stopTrackingEmptyTileRegions, the same reason
+        // keyframes leave them out
+        this.emptyTileRegions = new ArrayList<>(0);
+        this.seedMultiplierByDistance = original.seedMultiplierByDistance;
+        this.turnsUpdated = original.turnsUpdated;
+        this.stateHash = original.stateHash;
+        this.redStartLocation = original.redStartLocation;
+        this.blueStartLocation = original.blueStartLocation;
+        this.players = new ArrayList<>(2);
+        this.issuedTileTypes = null;
+        this.changedTiles = null;
+    }
 
-    public GameBoard(Tile[][] tiles) {
-        this.board = tiles;
+    /**
+     * Copies the board for a forked game. The tiles and the index of where they are share their memory with this
+     *  board until either board writes to it, so a copy only costs as much as what changes in it, and changes to
+     *  either board never show up on the other
+     *
+     * @param redPlayerCopy The copy of the red player, which stands on the copy wherever the red player stands here
+     * @param bluePlayerCopy The copy of the blue player, which stands on the copy wherever the blue player stands here
+     * @return The copy of this board
+     */
+    GameBoard copy(WoodPlayer redPlayerCopy, WoodPlayer bluePlayerCopy) {
+        GameBoard copy = new GameBoard(this);
+        for(int i = 0; i < players.size(); i++) {
+            copy.players.add(players.get(i).isRedPlayer() ? redPlayerCopy : bluePlayerCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * Writes everything about the board that changes during a game to a keyframe, see GameKeyframe: the turn count,
+     *  the start tiles, every tile that isn't empty as the number of empty tiles before it followed by its type and
+     *  stored value, and on boards that list their empty tiles, the order they're listed in. World generation picks
+     *  from that list once the board fills up, so a restored board has to list them in the same order to respawn
+     *  the same seeds. Regions tracked for initial generation aren't written, since nothing uses them after it
+     */
+    void writeKeyframe(GameKeyframe.Writer writer) {
+        writer.writeVarint(turnsUpdated);
+        writer.writeVarint(redStartLocation.x);
+        writer.writeVarint(redStartLocation.y);
+        writer.writeVarint(blueStartLocation.x);
+        writer.writeVarint(blueStartLocation.y);
+
+        int numberOfTiles = size * size;
+        writer.writeVarint(numberOfTiles - locationIndex.count(EMPTY));
+        int emptyTilesSkipped = 0;
+        for(int index = 0; index < numberOfTiles; index++) {
+            byte tileType = tiles.getType(index);
+            if(tileType == EMPTY) {
+                emptyTilesSkipped++;
+                continue;
+            }
+            writer.writeVarint(emptyTilesSkipped);
+            writer.writeByte(tileType);
+            writer.writeSignedVarint(tiles.getValue(index));
+            emptyTilesSkipped = 0;
+        }
+
+        boolean listsEmptyTiles = locationIndex.tracksLocationsOf(EMPTY);
+        writer.writeBoolean(listsEmptyTiles);
+        if(listsEmptyTiles) {
+            // Neighbouring slots mostly hold neighbouring tiles, so the differences fit in a byte each
+            int previousLocation = 0;
+            for(int slot = 0; slot < locationIndex.count(EMPTY); slot++) {
+                int location = locationIndex.locationAt(EMPTY, slot);
+                writer.writeSignedVarint(location - previousLocation);
+                previousLocation = location;
+            }
+        }
+    }
+
+    /**
+     * Reads back a board written by writeKeyframe with the players standing on it. Nothing happens to the players
+     *  as they're placed, since the keyframe already has them as they were after entering their tiles
+     *
+     * @param reader The keyframe to read the board from
+     * @param boardSize The size of the board that was written
+     * @param redPlayer The red player read from the same keyframe
+     * @param bluePlayer The blue player read from the same keyframe
+     * @return The board as it was when the keyframe was captured
+     */
+    static GameBoard readKeyframe(GameKeyframe.Reader reader, int boardSize, WoodPlayer redPlayer,
+                                  WoodPlayer bluePlayer) {
+        GameBoard board = new GameBoard(boardSize);
+        board.turnsUpdated = reader.readInt();
+        board.stateHash = ZobristKeys.turnKey(board.turnsUpdated);
+        board.redStartLocation = new Point(reader.readInt(), reader.readInt());
+        board.blueStartLocation = new Point(reader.readInt(), reader.readInt());
+
+        int numberOfTiles = boardSize * boardSize;
+        int tilesToRead = reader.readInt();
+        int index = -1;
+        for(int i = 0; i < tilesToRead; i++) {
+            index += reader.readInt() + 1;
+            byte tileType = reader.readByte();
+            int tileValue = reader.readSignedInt();
+            if(index >= numberOfTiles || tileType == EMPTY || tileType < 0 || tileType >= allTileTypes.length) {
+                throw new IllegalArgumentException("Invalid tile in keyframe at index " + index);
+            }
+            board.setTile(index, tileType, tileValue);
+        }
+
+        boolean listsEmptyTiles = reader.readBoolean();
+        if(listsEmptyTiles != board.locationIndex.tracksLocationsOf(EMPTY)) {
+            throw new IllegalArgumentException("Keyframe was captured from a board with different storage");
+        }
+        if(listsEmptyTiles) {
+            int[] emptyLocations = new int[board.locationIndex.count(EMPTY)];
+            int previousLocation = 0;
+            for(int slot = 0; slot < emptyLocations.length; slot++) {
+                previousLocation += reader.readSignedInt();
+                emptyLocations[slot] = previousLocation;
+            }
+            board.locationIndex.reorder(EMPTY, emptyLocations);
+        }
+
+        board.players.add(redPlayer);
+        board.players.add(bluePlayer);
+        return board;
     }
 
     public int getSize() {
-        return board.length;
+        return size;
+    }
+
+    /**
+     * Starts keeping track of which tiles change, for a display that only redraws the tiles that changed. A tile
+     *  counts as changed when it becomes a different tile, and a tree also counts as changed when it grows into the
+     *  next size, see TreeTile.getGrowthStage. Players moving around don't change any tiles. Keeping track costs a
+     *  little for every tile change and a look at every tree each turn, so boards only do it once asked to
+     *
+     * @return The changed tiles of this board, the same object every time this is called
+     */
+    public ChangedTiles trackChangedTiles() {
+        if(changedTiles == null) {
+            changedTiles = new ChangedTiles(size * size);
+        }
+        return changedTiles;
     }
 
     public Point getRedStartTileLocation() {
@@ -36,6 +268,40 @@ public class GameBoard {
         this.blueStartLocation = blueStartLocation;
     }
 
+    /**
+     * Places a player on the board at their current location, after which no other player can move onto that tile
+     *
+     * @param player The player to place on the board
+     */
+    public void addPlayer(WoodPlayer player) {
+        players.add(player);
+        onPlayerEnteredTile(player);
+    }
+
+    /**
+     * @return The players on the board, which is the board's own list, so don't change it
+     */
+    public List<WoodPlayer> getPlayers() {
+        return players;
+    }
+
+    /**
+     * Gets the player standing at the specified location
+     *
+     * @param x The x coordinate of the tile to check
+     * @param y The y coordinate of the tile to check
+     * @return The player standing on the tile, or null if the tile has no player on it
+     */
+    public WoodPlayer getPlayerAtLocation(int x, int y) {
+        for(int i = 0; i < players.size(); i++) {
+            Point playerLocation = players.get(i).getLocation();
+            if(playerLocation.x == x && playerLocation.y == y) {
+                return players.get(i);
+            }
+        }
+        return null;
+    }
+
     /**
      * Gets the tile at the specified location in Cartesian (x, y) coordinates with (0, 0) as the bottom left tile
      *  and (boardSize - 1, boardSize - 1) as the top right tile
@@ -49,22 +315,49 @@ public class GameBoard {
 
     /**
      * Gets the tile at the specified location in Cartesian (x, y) coordinates with (0, 0) as the bottom left tile
-     *  and (boardSize - 1, boardSize - 1) as the top right tile
+     *  and (boardSize - 1, boardSize - 1) as the top right tile. Empty and start tiles are shared instances, seed and
+     *  tree tiles are built from the board's state when this is called, so prefer getTileTypeAtLocation where the
+     *  type is all that's needed
      *
      * @param x The x coordinate of the tile to get
      * @param y The y coordinate of the tile to get
      * @return The Tile at the specified location on the board
      */
     public Tile getTileAtLocation(int x, int y) {
+        if(!isValidLocation(x, y)) {
+            return null;
+        }
+
+        int index = indexOf(x, y);
+        switch(allTileTypes[tiles.getType(index)]) {
+            case START: return StartTile.getInstance(redStartLocation.x == x && redStartLocation.y == y);
+            case SEED: return new SeedTile(tiles.getValue(index), getSeedMultiplier(x, y, redStartLocation),
+                                           getSeedMultiplier(x, y, blueStartLocation));
+            case TREE: return new TreeTile(getTreeWoodValue(index));
+            default: return EmptyTile.getInstance();
+        }
+    }
+
+    private double getSeedMultiplier(int x, int y, Point startLocation) {
+        return seedMultiplierByDistance[DistanceUtilities.getManhattanDistance(x, y, startLocation.x, startLocation.y)];
+    }
+
+    /**
+     * Gets the type of the tile at the specified location in Cartesian (x, y) coordinates
+     *
+     * @param x The x coordinate of the tile to get
+     * @param y The y coordinate of the tile to get
+     * @return The TileType at the specified location on the board, or null if the location is outside the board
+     */
+    public TileType getTileTypeAtLocation(int x, int y) {
         if(isValidLocation(x, y)) {
-            return board[(board.length - 1) - y][x];
+            return allTileTypes[tiles.getType(indexOf(x, y))];
         }
         return null;
     }
 
     /**
-     * Updates the tile at the specified location to be the new tile, handling logic like calling Tile.onEnter()
-     *  if necessary
+     * Updates the tile at the specified location to be the new tile. Any player standing on the tile stays there
      *
      * @param location A Point representing (x, y) coordinates of the tile to set
      * @param newTile The Tile that will be set at the specified location
@@ -74,54 +367,521 @@ public class GameBoard {
     }
 
     /**
-     * Updates the tile at the specified location to be the new tile, handling logic like calling Tile.onEnter()
-     *  if necessary
+     * Updates the tile at the specified location to be the new tile. Any player standing on the tile stays there
      *
      * @param x The x coordinate of the tile to set
      * @param y The y coordinate of the tile to set
      * @param newTile The Tile that will be set at the specified location
      */
     public void setTileAtLocation(int x, int y, Tile newTile) {
+        int tileValue = 0;
+        if(newTile instanceof SeedTile) {
+            tileValue = ((SeedTile) newTile).getInitialValue();
+        } else if(newTile instanceof TreeTile) {
+            tileValue = ((TreeTile) newTile).getWoodValue();
+        }
+
+        setTileAtLocation(x, y, newTile.getType(), tileValue);
+    }
+
+    /**
+     * Updates the tile at the specified location to a tile of the given type and value without building a Tile
+     *
+     * @param x The x coordinate of the tile to set
+     * @param y The y coordinate of the tile to set
+     * @param tileType The type of the new tile
+     * @param tileValue The initial value for a seed tile or the wood value for a tree tile, ignored otherwise
+     */
+    public void setTileAtLocation(int x, int y, TileType tileType, int tileValue) {
         if(isValidLocation(x, y)) {
-            Tile oldTile = board[(board.length - 1) - y][x];
-            WoodPlayer playerOnTile = oldTile.getPlayerOnTile();
+            if(tileType == TileType.TREE) {
+                setTreeTile(indexOf(x, y), tileValue);
+            } else {
+                setTile(indexOf(x, y), (byte) tileType.ordinal(), tileValue);
+            }
+        }
+    }
+
+    private void setTreeTile(int index, int woodValue) {
+        // Trees gain one wood per turn, so storing the value relative to the turn lets it grow on its own
+        setTile(index, TREE, woodValue - turnsUpdated);
+    }
+
+    private int getTreeWoodValue(int index) {
+        return tiles.getValue(index) + turnsUpdated;
+    }
+
+    private void setTile(int index, byte tileType, int tileValue) {
+        byte oldTileType = tiles.getType(index);
+        if(issuedTileTypes != null) {
+            // Views handed out before this change must keep seeing the board as it was when they were made
+            issuedTileTypes.recordChange(index, oldTileType);
+        }
 
-            if(playerOnTile != null) {
-                oldTile.onExit(playerOnTile);
-                newTile.onEnter(playerOnTile);
-                playerOnTile.setCurrentTile(newTile);
+        // Empty tiles have no key, so an empty board only hashes its turn number
+        if(oldTileType != EMPTY) {
+            stateHash ^= ZobristKeys.tileKey(index, oldTileType, tiles.getValue(index));
+        }
+        if(tileType != EMPTY) {
+            stateHash ^= ZobristKeys.tileKey(index, tileType, tileValue);
+        }
+
+        if(oldTileType != tileType) {
+            locationIndex.changeType(index, oldTileType, tileType);
+            if(oldTileType == EMPTY || tileType == EMPTY) {
+                updateEmptyTileRegions(index, tileType == EMPTY);
             }
+        }
 
-            board[(board.length - 1) - y][x] = newTile;
+        tiles.setTile(index, tileType, tileValue);
+        if(changedTiles != null) {
+            changedTiles.mark(index);
+        }
+    }
+
+    private void updateEmptyTileRegions(int index, boolean nowEmpty) {
+        int x = index % size;
+        int y = index / size;
+        for(int i = 0; i < emptyTileRegions.size(); i++) {
+            EmptyTileRegion region = emptyTileRegions.get(i);
+            if(region.contains(x, y)) {
+                if(nowEmpty) {
+                    region.addEmptyTile(index);
+                } else {
+                    region.removeEmptyTile(index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts keeping track of the empty tiles in a rectangle of the board, so counting and picking empty tiles in
+     *  exactly that rectangle is O(1) from then on. The whole board is always tracked. Every tracked rectangle adds
+     *  a little work to each tile change inside it, so only track the few rectangles that get sampled repeatedly.
+     *  Boards with chunked storage don't keep track of their empty tiles, so this does nothing for them
+     *
+     * @param minX The smallest x coordinate in the rectangle
+     * @param minY The smallest y coordinate in the rectangle
+     * @param maxX The largest x coordinate in the rectangle
+     * @param maxY The largest y coordinate in the rectangle
+     */
+    void trackEmptyTilesInRegion(int minX, int minY, int maxX, int maxY) {
+        if(!locationIndex.tracksLocationsOf(EMPTY) || isWholeBoard(minX, minY, maxX, maxY)
+           || getEmptyTileRegion(minX, minY, maxX, maxY) != null) {
+            return;
+        }
+
+        EmptyTileRegion region = new EmptyTileRegion(size, minX, minY, maxX, maxY);
+        for(int y = minY; y <= maxY; y++) {
+            for(int x = minX; x <= maxX; x++) {
+                if(tiles.getType(indexOf(x, y)) == EMPTY) {
+                    region.addEmptyTile(indexOf(x, y));
+                }
+            }
+        }
+        emptyTileRegions.add(region);
+    }
+
+    /**
+     * Stops keeping track of the rectangles passed to trackEmptyTilesInRegion, once nothing is going to sample them
+     *  again. Counting and picking empty tiles in them still works, it just scans the rectangle
+     */
+    void stopTrackingEmptyTileRegions() {
+        emptyTileRegions.clear();
+    }
+
+    /**
+     * Counts the empty tiles in a rectangle of the board, which is O(1) for the whole board and for rectangles
+     *  passed to trackEmptyTilesInRegion, and scans the rectangle otherwise
+     *
+     * @param minX The smallest x coordinate in the rectangle
+     * @param minY The smallest y coordinate in the rectangle
+     * @param maxX The largest x coordinate in the rectangle
+     * @param maxY The largest y coordinate in the rectangle
+     * @return How many empty tiles are in the rectangle
+     */
+    int countEmptyTilesInRegion(int minX, int minY, int maxX, int maxY) {
+        if(isWholeBoard(minX, minY, maxX, maxY)) {
+            return locationIndex.count(EMPTY);
+        }
+
+        EmptyTileRegion region = getEmptyTileRegion(minX, minY, maxX, maxY);
+        if(region != null) {
+            return region.countEmptyTiles();
+        }
+
+        int count = 0;
+        for(int y = minY; y <= maxY; y++) {
+            for(int x = minX; x <= maxX; x++) {
+                if(tiles.getType(indexOf(x, y)) == EMPTY) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets one of the empty tiles in a rectangle of the board. Which tile each number refers to is in no particular
+     *  order and changes as tiles change, but picking the number uniformly at random picks an empty tile uniformly
+     *  at random. Costs the same as countEmptyTilesInRegion, except on boards with chunked storage where picking
+     *  from the whole board also scans it
+     *
+     * @param minX The smallest x coordinate in the rectangle
+     * @param minY The smallest y coordinate in the rectangle
+     * @param maxX The largest x coordinate in the rectangle
+     * @param maxY The largest y coordinate in the rectangle
+     * @param emptyTileNumber A number from 0 (inclusive) to countEmptyTilesInRegion (exclusive)
+     * @return The row-major index (y * size + x) of the empty tile
+     */
+    int getEmptyTileInRegion(int minX, int minY, int maxX, int maxY, int emptyTileNumber) {
+        if(isWholeBoard(minX, minY, maxX, maxY) && locationIndex.tracksLocationsOf(EMPTY)) {
+            return locationIndex.locationAt(EMPTY, emptyTileNumber);
+        }
+
+        EmptyTileRegion region = getEmptyTileRegion(minX, minY, maxX, maxY);
+        if(region != null) {
+            return region.getEmptyTile(emptyTileNumber);
+        }
+
+        for(int y = minY; y <= maxY; y++) {
+            for(int x = minX; x <= maxX; x++) {
+                if(tiles.getType(indexOf(x, y)) == EMPTY && emptyTileNumber-- == 0) {
+                    return indexOf(x, y);
+                }
+            }
         }
+        throw new IndexOutOfBoundsException("Not enough empty tiles in region");
     }
 
-    private boolean isValidLocation(Point location) {
-        return isValidLocation(location.x, location.y);
+    private boolean isWholeBoard(int minX, int minY, int maxX, int maxY) {
+        return minX == 0 && minY == 0 && maxX == size - 1 && maxY == size - 1;
+    }
+
+    private EmptyTileRegion getEmptyTileRegion(int minX, int minY, int maxX, int maxY) {
+        for(int i = 0; i < emptyTileRegions.size(); i++) {
+            if(emptyTileRegions.get(i).hasBounds(minX, minY, maxX, maxY)) {
+                return emptyTileRegions.get(i);
+            }
+        }
+        return null;
+    }
+
+    private int indexOf(int x, int y) {
+        return y * size + x;
     }
 
     private boolean isValidLocation(int x, int y) {
-        int xIndex = x;
-        int yIndex = (board.length - 1) - y;
+        boolean xInBounds = (x >= 0 && x < size);
+        boolean yInBounds = (y >= 0 && y < size);
+
+        return xInBounds && yInBounds;
+    }
+
+    /**
+     * @param type The type of tile to count
+     * @return How many tiles of the type are on the board
+     */
+    public int countTiles(TileType type) {
+        return locationIndex.count((byte) type.ordinal());
+    }
+
+    /**
+     * Finds the tile of a type with the smallest manhattan distance from a location. Ties go to the tile with the
+     *  lowest x coordinate, then the lowest y coordinate
+     *
+     * @param fromX The x coordinate to measure distances from
+     * @param fromY The y coordinate to measure distances from
+     * @param type The type of tile to find
+     * @return The location of the closest tile of the type, or null if there are no tiles of that type
+     */
+    public Point findClosestTile(int fromX, int fromY, TileType type) {
+        byte typeToFind = (byte) type.ordinal();
+        int numberOfType = locationIndex.count(typeToFind);
+        if(numberOfType == 0) {
+            return null;
+        }
 
-        boolean xIndexInBounds = (xIndex >= 0 && xIndex < board.length);
-        boolean yIndexInBounds = (yIndex >= 0 && yIndex < board.length);
+        if(numberOfType * 4L >= (long) size * size || !locationIndex.tracksLocationsOf(typeToFind)) {
+            List<Point> closestTiles = new ArrayList<>(1);
+            searchOutwardsForTiles(fromX, fromY, typeToFind, 1, closestTiles);
+            return closestTiles.get(0);
+        }
+
+        long closestSortKey = Long.MAX_VALUE;
+        for(int slot = 0; slot < numberOfType; slot++) {
+            long sortKey = getSortKey(locationIndex.locationAt(typeToFind, slot), fromX, fromY);
+            closestSortKey = Math.min(closestSortKey, sortKey);
+        }
+        return getLocationFromSortKey(closestSortKey);
+    }
+
+    /**
+     * Finds up to maxTiles tiles of a type ordered by manhattan distance from a location, with ties ordered the
+     *  same way as findClosestTile. Only the tiles of that type are visited, unless the type covers so much of the
+     *  board that searching outwards from the location finds the closest ones sooner
+     *
+     * @param fromX The x coordinate to measure distances from
+     * @param fromY The y coordinate to measure distances from
+     * @param type The type of tile to find
+     * @param maxTiles The most tiles to return
+     * @return The locations of the closest tiles of the type, closest first
+     */
+    public List<Point> findClosestTiles(int fromX, int fromY, TileType type, int maxTiles) {
+        byte typeToFind = (byte) type.ordinal();
+        int numberOfType = locationIndex.count(typeToFind);
+        int numberToFind = Math.min(maxTiles, numberOfType);
+        List<Point> closestTiles = new ArrayList<>(Math.max(numberToFind, 0));
+        if(numberToFind <= 0) {
+            return closestTiles;
+        }
 
-        return xIndexInBounds && yIndexInBounds;
+        if(numberOfType * 4L >= (long) size * size || !locationIndex.tracksLocationsOf(typeToFind)) {
+            searchOutwardsForTiles(fromX, fromY, typeToFind, numberToFind, closestTiles);
+            return closestTiles;
+        }
+
+        long[] sortKeys;
+        if(numberToFind <= MAX_TILES_TO_SELECT) {
+            // Keep the closest ones found so far in order, most tiles are further than all of them and skipped
+            sortKeys = new long[numberToFind];
+            Arrays.fill(sortKeys, Long.MAX_VALUE);
+            for(int slot = 0; slot < numberOfType; slot++) {
+                long sortKey = getSortKey(locationIndex.locationAt(typeToFind, slot), fromX, fromY);
+                if(sortKey < sortKeys[numberToFind - 1]) {
+                    int i = numberToFind - 1;
+                    for(; i > 0 && sortKeys[i - 1] > sortKey; i--) {
+                        sortKeys[i] = sortKeys[i - 1];
+                    }
+                    sortKeys[i] = sortKey;
+                }
+            }
+        } else {
+            sortKeys = new long[numberOfType];
+            for(int slot = 0; slot < numberOfType; slot++) {
+                sortKeys[slot] = getSortKey(locationIndex.locationAt(typeToFind, slot), fromX, fromY);
+            }
+            Arrays.sort(sortKeys);
+        }
+
+        for(int i = 0; i < numberToFind; i++) {
+            closestTiles.add(getLocationFromSortKey(sortKeys[i]));
+        }
+        return closestTiles;
     }
 
     /**
-     * Called every turn for the board to update its internal state
+     * @return A key that orders tiles by manhattan distance from a location, then x, then y, the same order the
+     *          closest tile searches break ties in
+     */
+    private long getSortKey(int index, int fromX, int fromY) {
+        int x = index % size;
+        int y = index / size;
+        long distance = DistanceUtilities.getManhattanDistance(x, y, fromX, fromY);
+        return (distance << 42) | ((long) x << 21) | y;
+    }
+
+    private static Point getLocationFromSortKey(long sortKey) {
+        int x = (int) ((sortKey >>> 21) & 0x1FFFFF);
+        int y = (int) (sortKey & 0x1FFFFF);
+        return new Point(x, y);
+    }
+
+    private void searchOutwardsForTiles(int fromX, int fromY, byte typeToFind, int numberToFind, List<Point> found) {
+        // Walk rings of tiles at increasing distance, visiting each ring by increasing x then y
+        int maxDistance = 2 * (size - 1);
+        for(int distance = 0; distance <= maxDistance; distance++) {
+            for(int x = Math.max(0, fromX - distance); x <= Math.min(size - 1, fromX + distance); x++) {
+                int yOffset = distance - Math.abs(x - fromX);
+                addIfTypeMatches(x, fromY - yOffset, typeToFind, found);
+                if(yOffset != 0) {
+                    addIfTypeMatches(x, fromY + yOffset, typeToFind, found);
+                }
+
+                if(found.size() >= numberToFind) {
+                    // Anything later in the ring is further along the tie order, so the first ones found win
+                    while(found.size() > numberToFind) {
+                        found.remove(found.size() - 1);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private void addIfTypeMatches(int x, int y, byte typeToFind, List<Point> found) {
+        if(isValidLocation(x, y) && tiles.getType(indexOf(x, y)) == typeToFind) {
+            found.add(new Point(x, y));
+        }
+    }
+
+    /**
+     * Moves a player onto the specified tile if it is on the board and nobody else is standing there, handling what
+     *  happens when a player enters a tile (like turning in wood at their start tile)
+     *
+     * @param player The player to move
+     * @param x The x coordinate of the tile to move onto
+     * @param y The y coordinate of the tile to move onto
+     * @return True if the player moved, false if the move was not possible
+     */
+    public boolean movePlayer(WoodPlayer player, int x, int y) {
+        if(!isValidLocation(x, y)) {
+            // Can't step outside the world
+            return false;
+        }
+
+        if(getPlayerAtLocation(x, y) != null) {
+            // Can't step on a tile if there's another player there
+            return false;
+        }
+
+        player.setLocation(x, y);
+        onPlayerEnteredTile(player);
+        return true;
+    }
+
+    private void onPlayerEnteredTile(WoodPlayer player) {
+        Point location = player.getLocation();
+        if(tiles.getType(indexOf(location.x, location.y)) != START) {
+            return;
+        }
+
+        Point playerStartLocation = player.isRedPlayer() ? redStartLocation : blueStartLocation;
+        if(!location.equals(playerStartLocation)) {
+            // Wrong start tile for this player, don't do anything
+            return;
+        }
+
+        InventoryItem woodFromInventory = player.removeFirstItemOfType(ItemType.WOOD);
+        while (woodFromInventory != null) {
+            player.addToScore(woodFromInventory.getValue());
+            woodFromInventory = player.removeFirstItemOfType(ItemType.WOOD);
+        }
+    }
+
+    /**
+     * Performs an action on the tile the player is standing on: planting a seed on an empty tile, picking up a seed
+     *  or cutting down a tree
+     *
+     * @param player The player performing the action
+     * @param action The TurnAction being performed on the player's tile
+     * @return True if the tile changed as a result of the action, false otherwise
+     */
+    public boolean interactWithPlayerTile(WoodPlayer player, TurnAction action) {
+        Point location = player.getLocation();
+        int index = indexOf(location.x, location.y);
+        byte tileType = tiles.getType(index);
+
+        if(tileType == EMPTY && action == TurnAction.PLANT_SEED) {
+            InventoryItem firstSeed = player.removeFirstItemOfType(ItemType.SEED);
+            if(firstSeed != null) {
+                // Player has a seed, plant it
+                setTreeTile(index, firstSeed.getValue());
+                return true;
+            }
+        } else if(tileType == SEED && action == TurnAction.PICK_UP) {
+            // The seed leaves the board even if the player's inventory is too full to hold it
+            player.addItemToInventory(SeedItem.valueOf(getPointValueForPlayer(index, player)));
+            setTile(index, EMPTY, 0);
+            return true;
+        } else if(tileType == TREE && action == TurnAction.CUT_TREE) {
+            player.addItemToInventory(WoodItem.valueOf(getTreeWoodValue(index)));
+            setTile(index, EMPTY, 0);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the point value of the tile at the specified location for a player, see Tile.getPointValueForPlayer
+     *
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @param player The player to get the point value for
+     * @return The corresponding point value of the tile for the player
+     */
+    /**
+     * Replaces the values of the seeds and trees a player can't see with stand-ins, for a fork of the game the
+     *  player's strategy simulates, see GameEngine.startSimulation. Seeds get a new initial value from the fork's own
+     *  world generation and trees get the expected wood value of their growth stage, see
+     *  TreeTile.getExpectedWoodValue. The tile the player is standing on keeps its value, since their view shows it
+     *
+     * @param worldGeneration The fork's world generation, to draw seed values from
+     * @param player The player the fork is being simulated for
+     */
+    void hideTileValues(WorldGeneration worldGeneration, WoodPlayer player) {
+        Point playerLocation = player.getLocation();
+        int visibleIndex = indexOf(playerLocation.x, playerLocation.y);
+
+        // Only values change, never types, so the index keeps every tile in the slot it's being visited at
+        for(int slot = 0; slot < locationIndex.count(SEED); slot++) {
+            int index = locationIndex.locationAt(SEED, slot);
+            if(index != visibleIndex) {
+                setTile(index, SEED, worldGeneration.generateSeedValue());
+            }
+        }
+        for(int slot = 0; slot < locationIndex.count(TREE); slot++) {
+            int index = locationIndex.locationAt(TREE, slot);
+            if(index != visibleIndex) {
+                int growthStage = TreeTile.getGrowthStage(getTreeWoodValue(index));
+                setTreeTile(index, TreeTile.getExpectedWoodValue(growthStage));
+            }
+        }
+    }
+
+    public int getPointValueForPlayer(int x, int y, WoodPlayer player) {
+        return getPointValueForPlayer(indexOf(x, y), player);
+    }
+
+    private int getPointValueForPlayer(int index, WoodPlayer player) {
+        byte tileType = tiles.getType(index);
+        if(tileType == TREE) {
+            return getTreeWoodValue(index);
+        }
+
+        if(tileType == SEED) {
+            Point playerStartLocation = player.isRedPlayer() ? redStartLocation : blueStartLocation;
+            return (int) (getSeedMultiplier(index % size, index / size, playerStartLocation) * tiles.getValue(index));
+        }
+
+        return 0;
+    }
+
+    /**
+     * Called every turn for the board to update its internal state. Every tree grows by one wood, which only takes
+     *  counting the turn since tree values are stored relative to it
      */
     public void update() {
-        for(int i = 0; i < board.length; i++) {
-            for(int j = 0; j < board.length; j++) {
-                Tile currentTile = board[i][j];
-                currentTile.update();
+        stateHash ^= ZobristKeys.turnKey(turnsUpdated) ^ ZobristKeys.turnKey(turnsUpdated + 1);
+        turnsUpdated++;
+        if(changedTiles != null) {
+            markGrownTrees();
+        }
+    }
+
+    private void markGrownTrees() {
+        for(int slot = 0; slot < locationIndex.count(TREE); slot++) {
+            int index = locationIndex.locationAt(TREE, slot);
+            int woodValue = getTreeWoodValue(index);
+            if(TreeTile.getGrowthStage(woodValue) != TreeTile.getGrowthStage(woodValue - 1)) {
+                changedTiles.mark(index);
             }
         }
     }
 
+    /**
+     * Gets a 64-bit hash of every tile on the board and how many turns the board has been updated. Trees are hashed
+     *  by the turn they were planted rather than their current wood value, so growing doesn't change their part of
+     *  the hash, but two boards can only have equal trees with the same turn count. Boards in the same state always
+     *  have the same hash, no matter how they got there
+     *
+     * @return The Zobrist hash of the board's state
+     */
+    public long getStateHash() {
+        return stateHash;
+    }
+
     /**
      * Converts this GameBoard into a restricted information view of the board relative to what one player is
      *  allowed to know
@@ -132,21 +892,153 @@ public class GameBoard {
      *          player strategy is allowed to know
      */
     public PlayerBoardView convertToView(WoodPlayer playerReceivingView, WoodPlayer otherPlayer) {
-        TileType[][] tileView = new TileType[board.length][board.length];
-        for(int i = 0; i < tileView.length; i++) {
-            for(int j = 0; j < tileView[i].length; j++) {
-                tileView[i][j] = board[i][j].getType();
+        return convertToView(playerReceivingView, otherPlayer, null, 0);
+    }
+
+    /**
+     * Converts this GameBoard into a view the same as convertToView, which can also start simulations of the game
+     *
+     * @param simulationSource Starts simulations for PlayerBoardView.startSimulation, or null for a view without them
+     * @param viewNumber Which view of the game this is, passed back to the simulation source
+     */
+    PlayerBoardView convertToView(WoodPlayer playerReceivingView, WoodPlayer otherPlayer,
+                                  SimulationSource simulationSource, int viewNumber) {
+        // Both players' views share the live board until it next changes, so nothing is copied per turn
+        if(issuedTileTypes == null) {
+            issuedTileTypes = new LiveTileTypes();
+        } else if(!issuedTileTypes.isUpToDate()) {
+            LiveTileTypes newerTileTypes = new LiveTileTypes();
+            issuedTileTypes.newerTileTypes = newerTileTypes;
+            issuedTileTypes = newerTileTypes;
+        }
+
+        Point playerLocation = playerReceivingView.getLocation();
+        Point otherPlayerLocation = otherPlayer.getLocation();
+        int otherPlayerScore = otherPlayer.getScore();
+        int currentTileValue = getPointValueForPlayer(playerLocation.x, playerLocation.y, playerReceivingView);
+        return new PlayerBoardView(issuedTileTypes, playerLocation.x, playerLocation.y, otherPlayerLocation.x,
+                                   otherPlayerLocation.y, otherPlayerScore, currentTileValue, simulationSource,
+                                   viewNumber);
+    }
+
+    /**
+     * A read-only view of this board's tile types that reads straight from the live board. Rather than copying the
+     *  board when it changes after the view was handed out, the view remembers what each changed tile used to be,
+     *  and views handed out later are chained on to it. A tile the view has no record of is the same as it is in
+     *  the next view along, or on the live board at the end of the chain, so a strategy holding on to an old view
+     *  still sees the board of the turn it was given. Reading an old view walks every view handed out since, so
+     *  views get slower to read the further behind they are
+     */
+    private class LiveTileTypes implements TileTypeSource {
+        private int[] changedIndices;
+        private byte[] typesBeforeChange;
+        private int numberChanged;
+        private LiveTileTypes newerTileTypes;
+
+        LiveTileTypes() {
+            this.changedIndices = null;
+            this.typesBeforeChange = null;
+            this.numberChanged = 0;
+            this.newerTileTypes = null;
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public TileType getTileType(int x, int y) {
+            int index = indexOf(x, y);
+            for(LiveTileTypes view = this; view != null; view = view.newerTileTypes) {
+                for(int i = 0; i < view.numberChanged; i++) {
+                    if(view.changedIndices[i] == index) {
+                        return allTileTypes[view.typesBeforeChange[i]];
+                    }
+                }
             }
+            return allTileTypes[tiles.getType(index)];
         }
 
-        Point playerLocation = playerReceivingView.getCurrentTile().getLocation();
-        Point otherPlayerLocation = otherPlayer.getCurrentTile().getLocation();
+        @Override
+        public int countTiles(TileType type) {
+            if(!isUpToDate()) {
+                return TileTypeSource.super.countTiles(type);
+            }
+            return GameBoard.this.countTiles(type);
+        }
 
-        Point playerLocationCopy = new Point(playerLocation.x, playerLocation.y);
-        Point otherLocationCopy = new Point(otherPlayerLocation.x, otherPlayerLocation.y);
-        int otherPlayerScore = otherPlayer.getScore();
-        int currentTileValue = playerReceivingView.getCurrentTile().getPointValueForPlayer(playerReceivingView);
-        return new PlayerBoardView(tileView, playerLocationCopy, otherLocationCopy, otherPlayerScore, currentTileValue);
+        @Override
+        public Point findClosestTile(int fromX, int fromY, TileType type) {
+            if(!isUpToDate()) {
+                return TileTypeSource.super.findClosestTile(fromX, fromY, type);
+            }
+            return GameBoard.this.findClosestTile(fromX, fromY, type);
+        }
+
+        @Override
+        public List<Point> findClosestTiles(int fromX, int fromY, TileType type, int maxTiles) {
+            if(!isUpToDate()) {
+                return TileTypeSource.super.findClosestTiles(fromX, fromY, type, maxTiles);
+            }
+            return GameBoard.this.findClosestTiles(fromX, fromY, type, maxTiles);
+        }
+
+        @Override
+        public int[] findTilesChangedSince(TileTypeSource earlierSource) {
+            // Every change between the two is recorded on one of the views from the earlier one up to this one
+            int numberOfChanges = 0;
+            LiveTileTypes view = null;
+            if(earlierSource instanceof LiveTileTypes) {
+                view = (LiveTileTypes) earlierSource;
+                while(view != null && view != this) {
+                    numberOfChanges += view.numberChanged;
+                    view = view.newerTileTypes;
+                }
+            }
+            if(view == null) {
+                // Not a view of this board handed out before this one
+                return null;
+            }
+
+            int[] changed = new int[numberOfChanges];
+            int numberCopied = 0;
+            for(view = (LiveTileTypes) earlierSource; view != this; view = view.newerTileTypes) {
+                System.arraycopy(view.changedIndices, 0, changed, numberCopied, view.numberChanged);
+                numberCopied += view.numberChanged;
+            }
+            return changed;
+        }
+
+        /**
+         * @return True if the board hasn't changed since this view was handed out, so the board's indexes answer
+         *          for it
+         */
+        private boolean isUpToDate() {
+            return numberChanged == 0 && newerTileTypes == null;
+        }
+
+        /**
+         * Remembers what a tile was before the board changed it, unless this view already remembers an earlier type
+         */
+        private void recordChange(int index, byte oldTileType) {
+            for(int i = 0; i < numberChanged; i++) {
+                if(changedIndices[i] == index) {
+                    return;
+                }
+            }
+            if(changedIndices == null) {
+                // A turn only changes the couple of tiles the players act on, plus a respawned seed
+                changedIndices = new int[4];
+                typesBeforeChange = new byte[4];
+            } else if(numberChanged == changedIndices.length) {
+                changedIndices = Arrays.copyOf(changedIndices, numberChanged * 2);
+                typesBeforeChange = Arrays.copyOf(typesBeforeChange, numberChanged * 2);
+            }
+            changedIndices[numberChanged] = index;
+            typesBeforeChange[numberChanged] = oldTileType;
+            numberChanged++;
+        }
     }
 
     /**
@@ -156,11 +1048,21 @@ public class GameBoard {
      * @param imageManager The ImageManager object that manages all images for the JPanel component rendering this GameBoard
      */
     public void paint(Graphics2D brush, ImageManager imageManager) {
-        for(int i = 0; i < board.length; i++) {
-            for(int j = 0; j < board[i].length; j++) {
-                Tile currentTile = board[i][j];
-                currentTile.paint(brush, board.length, imageManager);
+        for(int y = 0; y < size; y++) {
+            for(int x = 0; x < size; x++) {
+                Tile currentTile = getTileAtLocation(x, y);
+                currentTile.paint(brush, x, y, size, imageManager);
             }
         }
+
+        // Draw players on top of the tiles they're standing on
+        int imageWidth = imageManager.getImageWidth();
+        int imageHeight = imageManager.getImageHeight();
+        for(int i = 0; i < players.size(); i++) {
+            WoodPlayer player = players.get(i);
+            Point location = player.getLocation();
+            imageManager.drawSprite(brush, player.getSpriteName(), location.x * imageWidth,
+                                    ((size - 1) - location.y) * imageHeight);
+        }
     }
 }
@@ -1,24 +1,55 @@
 package wood.game;
 
 import wood.replay.Replay;
+import wood.replay.ReplayOutcome;
+import wood.replay.StreamingReplayRecorder;
+import wood.strategy.GameSimulation;
 import wood.strategy.PlayerBoardView;
+import wood.strategy.SimulationSource;
 import wood.strategy.WoodPlayerStrategy;
-import wood.tiles.Tile;
 
 import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Observable;
 import java.util.Random;
 
 public class GameEngine extends Observable {
-    private static final int MAX_TURNS_PER_GAME = 1000;
+    static final int MAX_TURNS_PER_GAME = 1000;
     private static final int MIN_SCORE_TO_WIN = 2000;
     private static final double TURNS_PER_SECOND = 50;
 
     private long randomSeed;
+    private WorldGeneration worldGeneration;
     private GameBoard board;
     private WoodPlayer redPlayer;
     private WoodPlayer bluePlayer;
+    private int turnNumber;
+    private boolean isRedTurn;
     private boolean guiEnabled;
+    private boolean headless;
+    private long turnTimeLimitMillis;
+    private long gameTimeLimitMillis;
+    private StrategyWatchdog strategyWatchdog;
+    private String redStrategyName;
+    private String blueStrategyName;
+    private EngineMetrics metrics;
+    private EngineMetrics redPlayerMetrics;
+    private EngineMetrics bluePlayerMetrics;
+    private StreamingReplayRecorder replayRecorder;
+    private int keyframeInterval;
+    private List<byte[]> keyframes;
+    private boolean outcomeRecorded;
+    private int[] turnDigests;
+    private volatile BoardFrame latestFrame;
+    private SimulationSource redSimulationSource;
+    private SimulationSource blueSimulationSource;
+    private int viewsIssued;
+    // A strategy thread abandoned by the watchdog can still try to start a simulation, so it has to see this cleared
+    private volatile PlayerBoardView decidingView;
+    private GameEngine hiddenSimulation;
+    private int hiddenSimulationView;
     private WoodPlayer playerWhoThrewException;
     private Exception exceptionThrown;
 
@@ -28,19 +59,198 @@ public class GameEngine extends Observable {
 
     public GameEngine(int boardSize, WoodPlayerStrategy redPlayerStrategy, WoodPlayerStrategy bluePlayerStrategy, long randomSeed) {
         this.randomSeed = randomSeed;
-        WorldGeneration.setRandomNumberSeed(randomSeed);
-        this.board = WorldGeneration.generateBoard(boardSize);
-        Tile redStartTile = board.getTileAtLocation(board.getRedStartTileLocation());
-        Tile blueStartTile = board.getTileAtLocation(board.getBlueStartTileLocation());
+        this.worldGeneration = new WorldGeneration(randomSeed);
+        this.board = worldGeneration.generateBoard(boardSize);
+        this.redPlayer = new WoodPlayer(redPlayerStrategy, board.getRedStartTileLocation(), true);
+        this.bluePlayer = new WoodPlayer(bluePlayerStrategy, board.getBlueStartTileLocation(), false);
+        board.addPlayer(redPlayer);
+        board.addPlayer(bluePlayer);
+        this.turnNumber = 0;
+        this.isRedTurn = true;
+        this.guiEnabled = false;
+        this.headless = false;
+        this.turnTimeLimitMillis = 0;
+        this.gameTimeLimitMillis = 0;
+        this.strategyWatchdog = null;
+        this.redStrategyName = null;
+        this.blueStrategyName = null;
+        this.metrics = null;
+        this.redPlayerMetrics = null;
+        this.bluePlayerMetrics = null;
+        this.replayRecorder = null;
+        this.keyframeInterval = 0;
+        this.keyframes = new ArrayList<>(0);
+        this.outcomeRecorded = false;
+        this.latestFrame = null;
+        this.redSimulationSource = viewNumber -> startSimulation(redPlayer, viewNumber);
+        this.blueSimulationSource = viewNumber -> startSimulation(bluePlayer, viewNumber);
+        this.viewsIssued = 0;
+        this.decidingView = null;
+        this.hiddenSimulation = null;
+        this.hiddenSimulationView = 0;
+
+        this.playerWhoThrewException = null;
+        this.exceptionThrown = null;
+    }
+
+    private GameEngine(long randomSeed, WorldGeneration worldGeneration, GameBoard board, WoodPlayer redPlayer,
+                       WoodPlayer bluePlayer, int turnNumber, boolean isRedTurn) {
+        this.randomSeed = randomSeed;
+        this.worldGeneration = worldGeneration;
+        this.redPlayer = redPlayer;
+        this.bluePlayer = bluePlayer;
+        this.board = board;
+        this.turnNumber = turnNumber;
+        this.isRedTurn = isRedTurn;
+        this.guiEnabled = false;
+        this.headless = true;
+        this.keyframeInterval = 0;
+        this.keyframes = new ArrayList<>(0);
+
+        this.playerWhoThrewException = null;
+        this.exceptionThrown = null;
+    }
 
-        this.redPlayer = new WoodPlayer(redPlayerStrategy, redStartTile,true);
-        this.bluePlayer = new WoodPlayer(bluePlayerStrategy, blueStartTile, false);
+    private GameEngine(GameEngine original) {
+        this.randomSeed = original.randomSeed;
+        this.worldGeneration = original.worldGeneration.copy();
+        this.redPlayer = new WoodPlayer(original.redPlayer);
+        this.bluePlayer = new WoodPlayer(original.bluePlayer);
+        this.board = original.board.copy(redPlayer, bluePlayer);
+        this.turnNumber = original.turnNumber;
+        this.isRedTurn = original.isRedTurn;
         this.guiEnabled = false;
+        this.headless = true;
+        this.keyframeInterval = 0;
+        this.keyframes = new ArrayList<>(0);
 
         this.playerWhoThrewException = null;
         this.exceptionThrown = null;
     }
 
+    /**
+     * Makes an independent copy of the game as it is right now for looking ahead, such as a search-based strategy
+     *  playing out rollouts. The fork has its own board, players and world generation state, so it respawns the
+     *  same seeds this game would for the same actions, and nothing done to it affects this game. Forks have no
+     *  strategies, so they're played with advanceTurn rather than runGame, and they never notify observers
+     *
+     * @return A copy of this game that can be advanced with advanceTurn
+     */
+    public GameEngine fork() {
+        return new GameEngine(this);
+    }
+
+    /**
+     * Captures everything needed to carry on the game from the current turn into a compact snapshot, see
+     *  GameKeyframe. Restoring it gives a game in exactly this state, with the same state hash, that respawns the
+     *  same seeds this game would for the same actions
+     *
+     * @return The keyframe, for restoreKeyframe
+     */
+    public byte[] captureKeyframe() {
+        int boardSize = board.getSize();
+        // A couple of bytes a tile is about right for a full board, and the writer grows if it needs to. Worked out in
+        // a long since twice the tiles of a big board overflows an int
+        int initialCapacity = (int) Math.min(2L * boardSize * boardSize, 1 << 20);
+        GameKeyframe.Writer writer = new GameKeyframe.Writer(initialCapacity);
+        writer.writeByte(GameKeyframe.VERSION);
+        writer.writeVarint(boardSize);
+        writer.writeSignedVarint(randomSeed);
+        writer.writeVarint(turnNumber);
+        writer.writeBoolean(isRedTurn);
+        worldGeneration.writeKeyframe(writer);
+        redPlayer.writeKeyframe(writer);
+        bluePlayer.writeKeyframe(writer);
+        board.writeKeyframe(writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Rebuilds a game from a keyframe captured by captureKeyframe. Like a fork, the restored game has no strategies,
+     *  so it's played with advanceTurn and never notifies observers
+     *
+     * @param keyframe A keyframe from captureKeyframe
+     * @return A game in the state the keyframe was captured in
+     * @throws IllegalArgumentException If the keyframe is corrupt or from a newer version
+     */
+    public static GameEngine restoreKeyframe(byte[] keyframe) {
+        GameKeyframe.Reader reader = new GameKeyframe.Reader(keyframe);
+        byte version = reader.readByte();
+        if (version != GameKeyframe.VERSION) {
+            throw new IllegalArgumentException("Unsupported keyframe version " + version);
+        }
+
+        int boardSize = reader.readInt();
+        long randomSeed = reader.readSignedVarint();
+        int turnNumber = reader.readInt();
+        boolean isRedTurn = reader.readBoolean();
+        WorldGeneration worldGeneration = WorldGeneration.readKeyframe(reader);
+        WoodPlayer redPlayer = WoodPlayer.readKeyframe(reader, true);
+        WoodPlayer bluePlayer = WoodPlayer.readKeyframe(reader, false);
+        if (!isOnBoard(redPlayer.getLocation(), boardSize) || !isOnBoard(bluePlayer.getLocation(), boardSize)
+            || redPlayer.getLocation().equals(bluePlayer.getLocation())) {
+            throw new IllegalArgumentException("Keyframe has players in impossible places");
+        }
+        GameBoard board = GameBoard.readKeyframe(reader, boardSize, redPlayer, bluePlayer);
+        if (reader.hasRemaining()) {
+            throw new IllegalArgumentException("Keyframe has bytes left over after the board");
+        }
+
+        return new GameEngine(randomSeed, worldGeneration, board, redPlayer, bluePlayer, turnNumber, isRedTurn);
+    }
+
+    private static boolean isOnBoard(Point location, int boardSize) {
+        return location.x >= 0 && location.x < boardSize && location.y >= 0 && location.y < boardSize;
+    }
+
+    /**
+     * Plays one turn with the given actions instead of asking the strategies, in the same order a real turn would
+     *  play them: whichever player goes first this turn acts first, then the other, then trees grow
+     *
+     * @param redAction The TurnAction the red player takes, or null to do nothing
+     * @param blueAction The TurnAction the blue player takes, or null to do nothing
+     */
+    public void advanceTurn(TurnAction redAction, TurnAction blueAction) {
+        if (isRedTurn) {
+            applyTurnAction(redPlayer, redAction);
+            applyTurnAction(bluePlayer, blueAction);
+        } else {
+            applyTurnAction(bluePlayer, blueAction);
+            applyTurnAction(redPlayer, redAction);
+        }
+        endTurn();
+    }
+
+    /**
+     * @return True once the maximum number of turns has been played or a player has the score needed to win
+     */
+    public boolean isGameOver() {
+        boolean roundHasWinner = (redPlayer.getScore() >= MIN_SCORE_TO_WIN) || (bluePlayer.getScore() >= MIN_SCORE_TO_WIN);
+        return turnNumber >= MAX_TURNS_PER_GAME || roundHasWinner;
+    }
+
+    /**
+     * Gets a 64-bit hash of the whole game state: every tile, both players' positions, inventories and scores, and
+     *  the turn number. It's kept up to date as the game changes rather than computed on request, so it's cheap
+     *  enough to check every turn, and games (or forks) in the same state always have the same hash
+     *
+     * @return The Zobrist hash of the game's state
+     */
+    public long getStateHash() {
+        return board.getStateHash() ^ redPlayer.getStateHash() ^ bluePlayer.getStateHash();
+    }
+
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    /**
+     * @return True if the red player acts first on the current turn
+     */
+    public boolean isRedTurn() {
+        return isRedTurn;
+    }
+
     public GameBoard getBoard() {
         return board;
     }
@@ -61,6 +271,21 @@ public class GameEngine extends Observable {
         return bluePlayer.getScore();
     }
 
+    /**
+     * @return The red strategy's name, asked for once when runGame starts under the same time limits as every other
+     *          strategy call, or the strategy's class name if getName threw or ran over. Null before runGame
+     */
+    public String getRedStrategyName() {
+        return redStrategyName;
+    }
+
+    /**
+     * @return The blue strategy's name, see getRedStrategyName
+     */
+    public String getBlueStrategyName() {
+        return blueStrategyName;
+    }
+
     public Exception getExceptionThrown() {
         return exceptionThrown;
     }
@@ -69,38 +294,206 @@ public class GameEngine extends Observable {
         return randomSeed;
     }
 
+    /**
+     * Gets the frame published after the last turn the engine finished, see BoardFrame. Frames are only published
+     *  while something is observing the engine, and observers are handed each frame as it's published, so a display
+     *  can keep hold of the latest one and draw it whenever it's ready to without waiting on the engine. Only the
+     *  first frame holds the whole board, so a display needs that one and every frame linked after it
+     *
+     * @return The latest frame, or null if none has been published
+     */
+    public BoardFrame getLatestFrame() {
+        return latestFrame;
+    }
+
     public void setGuiEnabled(boolean guiEnabled) {
         this.guiEnabled = guiEnabled;
     }
 
+    /**
+     * Puts the engine in headless mode for batch runs like tournaments. A headless engine never paces turns for the
+     *  GUI and never notifies observers, regardless of whether the GUI is enabled, so nothing watching the engine
+     *  will see updates while a headless game runs. Strategies get the same PlayerBoardViews either way
+     *
+     * @param headless True to skip all GUI-only work while running games, false to run games normally
+     */
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
+    /**
+     * Limits how long strategies can take to decide what to do. Once either limit is set, strategy calls run on a
+     *  separate thread and the engine stops waiting for a call that runs over its limit. A strategy that runs over
+     *  is treated the same as one that throws an exception: it gets a score of -1, the game ends, and the replay
+     *  records that it threw. Without limits strategies are called directly on the thread running the game
+     *
+     * @param turnTimeLimitMillis How long a strategy can take for any single call (initialize, getTurnAction,
+     *                            receiveItem or endRound), or 0 for no limit
+     * @param gameTimeLimitMillis How long all of one strategy's calls can take over the whole game, or 0 for no limit
+     */
+    public void setTimeLimits(long turnTimeLimitMillis, long gameTimeLimitMillis) {
+        if(turnTimeLimitMillis < 0 || gameTimeLimitMillis < 0) {
+            throw new IllegalArgumentException("Time limits can't be negative");
+        }
+        this.turnTimeLimitMillis = turnTimeLimitMillis;
+        this.gameTimeLimitMillis = gameTimeLimitMillis;
+    }
+
+    /**
+     * Turns timing of each part of every turn on or off, see EnginePhase for what gets timed. Turning it on starts
+     *  over with empty metrics. With metrics off, the only cost left in a turn is checking that they're off
+     *
+     * @param metricsEnabled True to time every turn from now on, false to stop timing and drop the metrics
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        if (metricsEnabled) {
+            this.metrics = new EngineMetrics();
+            this.redPlayerMetrics = new EngineMetrics();
+            this.bluePlayerMetrics = new EngineMetrics();
+        } else {
+            this.metrics = null;
+            this.redPlayerMetrics = null;
+            this.bluePlayerMetrics = null;
+        }
+    }
+
+    /**
+     * @return Timings of every phase of the game for both players together, or null if metrics aren't enabled
+     */
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return Timings of the phases of the game done for the red player's turns, or null if metrics aren't enabled.
+     *          BOARD_UPDATE belongs to neither player, so it's only in getMetrics
+     */
+    public EngineMetrics getRedPlayerMetrics() {
+        return redPlayerMetrics;
+    }
+
+    /**
+     * @return Timings of the phases of the game done for the blue player's turns, or null if metrics aren't enabled.
+     *          BOARD_UPDATE belongs to neither player, so it's only in getMetrics
+     */
+    public EngineMetrics getBluePlayerMetrics() {
+        return bluePlayerMetrics;
+    }
+
+    /**
+     * Records the game's replay turn by turn while runGame plays it, so the replay survives even if the game never
+     *  finishes. The engine starts the recorder before the first turn and finishes it once the game ends, however
+     *  it ends. getReplay still works the same with or without a recorder
+     *
+     * @param replayRecorder A recorder that hasn't recorded anything yet, or null to stop recording
+     */
+    public void setReplayRecorder(StreamingReplayRecorder replayRecorder) {
+        this.replayRecorder = replayRecorder;
+    }
+
+    /**
+     * Has runGame capture a keyframe every so many turns, which getReplay then includes so the replay can be
+     *  watched from any turn after playing at most that many turns, see ReplayIO.setupEngineAtTurn. A keyframe of a
+     *  30x30 board is around a kilobyte, so an interval of 100 adds about a tenth to a replay in BinaryReplayFormat
+     *
+     * @param keyframeInterval How many turns apart to capture keyframes, or 0 to not capture any
+     */
+    public void setKeyframeInterval(int keyframeInterval) {
+        if (keyframeInterval < 0) {
+            throw new IllegalArgumentException("Keyframe interval can't be negative, was " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Has runGame record how the game turned out, which getReplay then includes so ReplayVerifier can check that
+     *  replaying it on a later version of the engine still ends the same way. The outcome keeps a 4 byte digest of
+     *  every turn, around 4 KB for a full game, which is several times the size of the replay's packed actions, so
+     *  only record it for replays that are going to be verified
+     *
+     * @param outcomeRecorded True to record the outcome of games played from now on, false to not
+     */
+    public void setOutcomeRecorded(boolean outcomeRecorded) {
+        this.outcomeRecorded = outcomeRecorded;
+    }
+
+    /**
+     * Gets the replay of the game. Once runGame has played it with the outcome being recorded, see
+     *  setOutcomeRecorded, the replay also records how the game turned out
+     *
+     * @return The replay of the game so far
+     */
     public Replay getReplay() {
         boolean redThrewException = (playerWhoThrewException == redPlayer);
         boolean blueThrewException = (playerWhoThrewException == bluePlayer);
+        ReplayOutcome outcome = null;
+        if (turnDigests != null) {
+            outcome = new ReplayOutcome(redPlayer.getScore(), bluePlayer.getScore(), getStateHash(),
+                                        Arrays.copyOf(turnDigests, Math.min(turnNumber, turnDigests.length)));
+        }
         return new Replay(board.getSize(), randomSeed, redPlayer.getAllTurnActions(), bluePlayer.getAllTurnActions(),
-                          redThrewException, blueThrewException);
+                          redThrewException, blueThrewException, keyframes.isEmpty() ? 0 : keyframeInterval,
+                          keyframes, outcome);
     }
 
     /**
      * Runs through a round of Wood: The Gathering until either the maximum number of turns is reached
      *  or a player achieves the score needed to win. If either player strategy throws an exception at any time,
      *  that strategy will receive a score of -1 and the game will end
+     *
+     * @throws IllegalStateException If the engine or its replay recorder fails, which ends the game without blaming
+     *                               either player, and leaves the replay as one that never finished
      */
     public void runGame() {
-        // Wait a few seconds at the start for graphical components to load
+        if (redPlayer.getStrategy() == null) {
+            throw new IllegalStateException("Forked games have no strategies to run, use advanceTurn instead");
+        }
+
+        // Show the board as it starts, then wait a few seconds for graphical components to load
+        notifyStateChanged();
         delayBetweenGuiFrames(2000);
 
+        if (turnTimeLimitMillis > 0 || gameTimeLimitMillis > 0) {
+            strategyWatchdog = new StrategyWatchdog(turnTimeLimitMillis, gameTimeLimitMillis);
+            redPlayer.setStrategyWatchdog(strategyWatchdog);
+            bluePlayer.setStrategyWatchdog(strategyWatchdog);
+        }
+        turnDigests = outcomeRecorded ? new int[MAX_TURNS_PER_GAME] : null;
+
         try {
+            redStrategyName = captureStrategyName(redPlayer);
+            blueStrategyName = captureStrategyName(bluePlayer);
+            if (replayRecorder != null) {
+                replayRecorder.start(board.getSize(), randomSeed);
+            }
             runGameLoop();
         } catch(Exception e) {
             // It's generally bad practice to catch generic Exceptions, but because a strategy can throw an exception
             // of any type, it's unavoidable here
-            playerWhoThrewException.setScore(-1);
             this.exceptionThrown = e;
+            if (playerWhoThrewException == null) {
+                // Only set while a strategy is being called, so this came from the engine itself or its recorder
+                throw new IllegalStateException("The game with seed " + randomSeed + " failed on turn " + turnNumber
+                                                + " through no fault of either strategy", e);
+            }
+            playerWhoThrewException.setScore(-1);
 
             // Let anything watching update
-            setChanged();
-            notifyObservers();
+            notifyStateChanged();
             e.printStackTrace();
+        } finally {
+            if (strategyWatchdog != null) {
+                strategyWatchdog.shutdown();
+                strategyWatchdog = null;
+                redPlayer.setStrategyWatchdog(null);
+                bluePlayer.setStrategyWatchdog(null);
+            }
+            if (replayRecorder != null && exceptionThrown != null && playerWhoThrewException == null) {
+                // The game can't be played out, so the replay is left without a trailer, like one that was cut off
+                replayRecorder.close();
+            } else if (replayRecorder != null) {
+                replayRecorder.finish(playerWhoThrewException == redPlayer, playerWhoThrewException == bluePlayer);
+            }
         }
     }
 
@@ -108,15 +501,16 @@ public class GameEngine extends Observable {
         initializePlayer(redPlayer, true);
         initializePlayer(bluePlayer, false);
 
-        int turnNumber = 0;
-        boolean isRedTurn = true;
         WoodPlayer firstPlayer;
         WoodPlayer secondPlayer;
-        boolean roundHasWinner = (redPlayer.getScore() >= MIN_SCORE_TO_WIN) || (bluePlayer.getScore() >= MIN_SCORE_TO_WIN);
 
-        while (turnNumber < MAX_TURNS_PER_GAME && !roundHasWinner) {
+        while (!isGameOver()) {
             delayBetweenGuiFrames((long) (1000 / TURNS_PER_SECOND));
 
+            if (keyframeInterval > 0 && turnNumber > 0 && turnNumber % keyframeInterval == 0) {
+                keyframes.add(captureKeyframe());
+            }
+
             if (isRedTurn) {
                 firstPlayer = redPlayer;
                 secondPlayer = bluePlayer;
@@ -127,51 +521,148 @@ public class GameEngine extends Observable {
 
             processTurn(firstPlayer, secondPlayer, isRedTurn);
             processTurn(secondPlayer, firstPlayer, isRedTurn);
-            board.update();
-
-            isRedTurn = !isRedTurn;
-            turnNumber++;
-            roundHasWinner = (redPlayer.getScore() >= MIN_SCORE_TO_WIN) || (bluePlayer.getScore() >= MIN_SCORE_TO_WIN);
+            endTurn();
+            if (turnDigests != null) {
+                turnDigests[turnNumber - 1] = ReplayOutcome.digest(getStateHash());
+            }
 
             // The state of the engine has changed, let anything observing it (like the GUI) know
-            this.setChanged();
-            this.notifyObservers();
+            notifyStateChanged();
         }
 
         // End the round
         int redPlayerScore = redPlayer.getScore();
         int bluePlayerScore = bluePlayer.getScore();
-        redPlayer.getStrategy().endRound(redPlayerScore, bluePlayerScore);
-        bluePlayer.getStrategy().endRound(bluePlayerScore, redPlayerScore);
+        endRound(redPlayer, redPlayerScore, bluePlayerScore);
+        endRound(bluePlayer, bluePlayerScore, redPlayerScore);
+    }
+
+    private void endRound(WoodPlayer player, int pointsScored, int opponentPointsScored) {
+        playerWhoThrewException = player;
+        WoodPlayerStrategy strategy = player.getStrategy();
+        if (strategyWatchdog == null) {
+            strategy.endRound(pointsScored, opponentPointsScored);
+        } else {
+            strategyWatchdog.call(player, () -> {
+                strategy.endRound(pointsScored, opponentPointsScored);
+                return null;
+            });
+        }
         playerWhoThrewException = null;
     }
 
+    private String captureStrategyName(WoodPlayer player) {
+        WoodPlayerStrategy strategy = player.getStrategy();
+        try {
+            if (strategyWatchdog == null) {
+                return strategy.getName();
+            }
+            return strategyWatchdog.call(player, strategy::getName);
+        } catch(Exception e) {
+            // Bookkeeping shouldn't cost a strategy its match, so fall back on something that can't throw. A name
+            // that ran over still used up its time, so a strategy stuck in getName loses on its next call instead
+            return strategy.getClass().getName();
+        }
+    }
+
     private void initializePlayer(WoodPlayer playerToInitialize, boolean isRedPlayer) {
-        playerWhoThrewException = playerToInitialize;
         int boardSize = board.getSize();
         int maxInventorySize = WoodPlayer.MAX_ITEMS;
-        Point playerStartLocation = playerToInitialize.getCurrentTile().getLocation();
+        Point playerStartLocation = playerToInitialize.getLocation();
         Point playerStartCopy = new Point(playerStartLocation.x, playerStartLocation.y);
-        playerToInitialize.getStrategy().initialize(boardSize, maxInventorySize, MIN_SCORE_TO_WIN,
-                                                    playerStartCopy, isRedPlayer, new Random(randomSeed));
-
-        Point startTileLocation;
-        if (playerToInitialize.isRedPlayer()) {
-            startTileLocation = board.getRedStartTileLocation();
+        WoodPlayerStrategy strategy = playerToInitialize.getStrategy();
+        Random strategyRandom = new Random(randomSeed);
+        playerWhoThrewException = playerToInitialize;
+        if (strategyWatchdog == null) {
+            strategy.initialize(boardSize, maxInventorySize, MIN_SCORE_TO_WIN, playerStartCopy, isRedPlayer,
+                                strategyRandom);
         } else {
-            startTileLocation = board.getBlueStartTileLocation();
+            strategyWatchdog.call(playerToInitialize, () -> {
+                strategy.initialize(boardSize, maxInventorySize, MIN_SCORE_TO_WIN, playerStartCopy, isRedPlayer,
+                                    strategyRandom);
+                return null;
+            });
         }
-
-        board.getTileAtLocation(startTileLocation).onEnter(playerToInitialize);
+        playerWhoThrewException = null;
     }
 
     private void processTurn(WoodPlayer currentPlayer, WoodPlayer otherPlayer, boolean isRedTurn) {
+        long phaseStart = (metrics == null) ? 0 : System.nanoTime();
+        SimulationSource simulationSource = (currentPlayer == redPlayer) ? redSimulationSource : blueSimulationSource;
+        PlayerBoardView boardView = board.convertToView(currentPlayer, otherPlayer, simulationSource, ++viewsIssued);
+        decidingView = boardView;
+        if (metrics != null) {
+            phaseStart = recordPhase(currentPlayer, EnginePhase.BUILD_VIEW, phaseStart);
+        }
+
+        TurnAction playerAction;
         playerWhoThrewException = currentPlayer; // If an exception gets thrown, we know who did it
+        try {
+            if (strategyWatchdog == null) {
+                playerAction = currentPlayer.getStrategy().getTurnAction(boardView, isRedTurn);
+            } else {
+                WoodPlayerStrategy strategy = currentPlayer.getStrategy();
+                playerAction = strategyWatchdog.call(currentPlayer,
+                                                     () -> strategy.getTurnAction(boardView, isRedTurn));
+            }
+        } finally {
+            // Whether the strategy answered, threw or ran over, the turn is decided and simulations from it are done
+            decidingView = null;
+            hiddenSimulation = null;
+        }
+        playerWhoThrewException = null;
+        if (metrics != null) {
+            recordPhase(currentPlayer, EnginePhase.GET_TURN_ACTION, phaseStart);
+        }
+        applyTurnAction(currentPlayer, playerAction);
 
-        PlayerBoardView boardView = board.convertToView(currentPlayer, otherPlayer);
-        TurnAction playerAction = currentPlayer.getStrategy().getTurnAction(boardView, isRedTurn);
+        // Only recorded once it's been applied: if receiveItem throws part way through, the action is left out and
+        // the replay ends on a half-played turn, the same as when getTurnAction throws, see ReplayVerifier.verify
         currentPlayer.addTurnAction(playerAction);
+        if (replayRecorder != null) {
+            replayRecorder.recordAction(currentPlayer.isRedPlayer(), playerAction);
+        }
+    }
+
+    /**
+     * Forks the game for the strategy deciding the current turn to look ahead in, see
+     *  PlayerBoardView.startSimulation. The fork only knows what the strategy's view shows it. The other player's
+     *  inventory is emptied, and if the other player is out of sight they're put on their start tile instead. Every
+     *  seed and tree except the one the player is standing on gets a stand-in value, see GameBoard.hideTileValues,
+     *  since strategies never see the values of tiles they aren't standing on. Seeds respawn from a generator of the
+     *  fork's own, since this game's generator would give away where they'll go and what they'll be worth. Hiding
+     *  the values writes to every seed and tree, so it's only done once per view, and every simulation started from
+     *  the view is a fork of that one hidden copy
+     *
+     * @param player The player the simulation is for
+     * @param viewNumber Which view the simulation was started from, so views from earlier turns can't start one
+     * @return The simulation
+     */
+    private GameSimulation startSimulation(WoodPlayer player, int viewNumber) {
+        if (decidingView == null || viewNumber != viewsIssued) {
+            throw new IllegalStateException("Simulations can only be started while deciding the turn the view was "
+                                            + "handed over for");
+        }
 
+        if (hiddenSimulation == null || hiddenSimulationView != viewNumber) {
+            GameEngine simulation = new GameEngine(this);
+            simulation.worldGeneration = new WorldGeneration(randomSeed ^ getStateHash());
+            WoodPlayer simulatedPlayer = player.isRedPlayer() ? simulation.redPlayer : simulation.bluePlayer;
+            WoodPlayer simulatedOtherPlayer = player.isRedPlayer() ? simulation.bluePlayer : simulation.redPlayer;
+            simulatedOtherPlayer.clearInventory();
+            if (decidingView.getOtherPlayerLocation() == null) {
+                Point otherStart = player.isRedPlayer() ? board.getBlueStartTileLocation()
+                                                        : board.getRedStartTileLocation();
+                simulatedOtherPlayer.setLocation(otherStart.x, otherStart.y);
+            }
+            simulation.board.hideTileValues(simulation.worldGeneration, simulatedPlayer);
+            hiddenSimulation = simulation;
+            hiddenSimulationView = viewNumber;
+        }
+        return new StrategySimulation(hiddenSimulation.fork(), player.isRedPlayer());
+    }
+
+    private void applyTurnAction(WoodPlayer currentPlayer, TurnAction playerAction) {
         if (playerAction == null) {
             return;
         }
@@ -193,56 +684,92 @@ public class GameEngine extends Observable {
         }
     }
 
-    private void handleMove(WoodPlayer player, int xChange, int yChange) {
-        Tile currentTile = player.getCurrentTile();
-        Point playerLocation = currentTile.getLocation();
-
-        int nextX = playerLocation.x + xChange;
-        int nextY = playerLocation.y + yChange;
-        boolean nextXInBounds = (nextX >= 0 && nextX < board.getSize());
-        boolean nextYInBounds = (nextY >= 0 && nextY < board.getSize());
-        if (!nextXInBounds || !nextYInBounds) {
-            // Can't step outside the world
-            return;
+    private void endTurn() {
+        long phaseStart = (metrics == null) ? 0 : System.nanoTime();
+        board.update();
+        if (metrics != null) {
+            metrics.record(EnginePhase.BOARD_UPDATE, System.nanoTime() - phaseStart);
         }
+        isRedTurn = !isRedTurn;
+        turnNumber++;
+    }
 
-        Tile nextTile = board.getTileAtLocation(nextX, nextY);
-        if (nextTile.getPlayerOnTile() != null) {
-            // Can't step on a tile if there's another player there
-            return;
+    private void handleMove(WoodPlayer player, int xChange, int yChange) {
+        long phaseStart = (metrics == null) ? 0 : System.nanoTime();
+        Point playerLocation = player.getLocation();
+        board.movePlayer(player, playerLocation.x + xChange, playerLocation.y + yChange);
+        if (metrics != null) {
+            recordPhase(player, EnginePhase.MOVE, phaseStart);
         }
-
-        currentTile.onExit(player);
-        nextTile.onEnter(player);
-        player.setCurrentTile(nextTile);
     }
 
     private void handleActionOnPlayerTile(WoodPlayer playerPerformingAction, TurnAction action) {
+        long phaseStart = (metrics == null) ? 0 : System.nanoTime();
         boolean playerInventoryFull = playerPerformingAction.isInventoryFull();
-        Tile currentPlayerTile = playerPerformingAction.getCurrentTile();
-        Tile tileAfterAction = currentPlayerTile.interact(playerPerformingAction, action);
-
-        if (tileAfterAction != currentPlayerTile) {
-            // Tile has changed as a result of the action
-            board.setTileAtLocation(currentPlayerTile.getLocation(), tileAfterAction);
-            playerPerformingAction.setCurrentTile(tileAfterAction);
-
-            if (needToGenerateSeedTile(playerInventoryFull, action)) {
-                Point boardBottomLeft = new Point(0, 0);
-                Point boardTopRight = new Point(board.getSize() - 1, board.getSize() - 1);
-                WorldGeneration.generateNewSeedTile(board, boardBottomLeft, boardTopRight);
+        // Anything picked up is handed to the player's strategy through receiveItem
+        playerWhoThrewException = playerPerformingAction;
+        boolean tileChanged = board.interactWithPlayerTile(playerPerformingAction, action);
+        playerWhoThrewException = null;
+        if (metrics != null) {
+            phaseStart = recordPhase(playerPerformingAction, EnginePhase.ACTION_ON_TILE, phaseStart);
+        }
+
+        if (tileChanged && needToGenerateSeedTile(playerInventoryFull, action)) {
+            // If every tile is taken there's nowhere for the seed to go, so the board just goes without one
+            worldGeneration.generateNewSeedTile(board, 0, 0, board.getSize() - 1, board.getSize() - 1);
+            if (metrics != null) {
+                recordPhase(playerPerformingAction, EnginePhase.SEED_RESPAWN, phaseStart);
             }
         }
     }
 
+    /**
+     * Records how long a phase done for a player took into both the game's and the player's metrics. Only call this
+     *  with metrics enabled
+     *
+     * @return The time the phase ended, so the next phase can start timing from it
+     */
+    private long recordPhase(WoodPlayer player, EnginePhase phase, long phaseStart) {
+        long phaseEnd = System.nanoTime();
+        long nanos = phaseEnd - phaseStart;
+        metrics.record(phase, nanos);
+        if (player == redPlayer) {
+            redPlayerMetrics.record(phase, nanos);
+        } else {
+            bluePlayerMetrics.record(phase, nanos);
+        }
+        return phaseEnd;
+    }
+
     private boolean needToGenerateSeedTile(boolean inventoryFull, TurnAction action) {
         // If a tree is cut, or a seed was deleted from the world by being put into a full inventory
         // Then a new seed needs to be generated
         return (action == TurnAction.CUT_TREE) || (inventoryFull && action == TurnAction.PICK_UP);
     }
 
+    private void notifyStateChanged() {
+        if(headless) {
+            // Observable's methods are synchronized, skip them entirely when nothing is meant to be watching
+            return;
+        }
+
+        if(countObservers() == 0) {
+            return;
+        }
+
+        // Only the engine thread publishes frames, so a plain volatile write is all the renderer needs to see a
+        // complete one, and the engine never waits for anything drawing the last
+        BoardFrame previousFrame = latestFrame;
+        BoardFrame frame = (previousFrame == null) ? BoardFrame.capture(board, turnNumber)
+                                                   : previousFrame.next(board, turnNumber);
+        latestFrame = frame;
+
+        this.setChanged();
+        this.notifyObservers(frame);
+    }
+
     private void delayBetweenGuiFrames(long millisecondsToWait) {
-        if(!guiEnabled) {
+        if(headless || !guiEnabled) {
             return;
         }
 
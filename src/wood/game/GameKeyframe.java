@@ -0,0 +1,121 @@
+package wood.game;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The byte layout of a snapshot of everything a game needs to carry on from a turn, written by
+ *  GameEngine.captureKeyframe and read back by GameEngine.restoreKeyframe. Numbers are written as varints so a
+ *  keyframe of a 30x30 board is around a kilobyte. In order, a keyframe holds:
+ *  the version byte, the board size, the world seed, the turn number, who acts first, the world generation state,
+ *  both players (red first) and then the board, see GameBoard.writeKeyframe and WoodPlayer.writeKeyframe
+ */
+final class GameKeyframe {
+    static final byte VERSION = 1;
+
+    private GameKeyframe() {
+    }
+
+    /**
+     * Appends the parts of a keyframe to a growing byte array
+     */
+    static final class Writer {
+        private byte[] bytes;
+        private int length;
+
+        Writer(int initialCapacity) {
+            this.bytes = new byte[Math.max(initialCapacity, 16)];
+            this.length = 0;
+        }
+
+        void writeByte(int value) {
+            if(length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        void writeVarint(long value) {
+            while((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeSignedVarint(long value) {
+            // Zigzag so small negative numbers stay small
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    /**
+     * Reads the parts of a keyframe back in the order they were written, throwing IllegalArgumentException if the
+     *  keyframe ends early
+     */
+    static final class Reader {
+        private ByteBuffer buffer;
+
+        Reader(byte[] keyframe) {
+            this.buffer = ByteBuffer.wrap(keyframe);
+        }
+
+        byte readByte() {
+            try {
+                return buffer.get();
+            } catch(BufferUnderflowException e) {
+                throw new IllegalArgumentException("Keyframe ends early", e);
+            }
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for(int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in keyframe");
+        }
+
+        int readInt() {
+            long value = readVarint();
+            if(value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Keyframe number out of range: " + value);
+            }
+            return (int) value;
+        }
+
+        long readSignedVarint() {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readSignedInt() {
+            long value = readSignedVarint();
+            if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Keyframe number out of range: " + value);
+            }
+            return (int) value;
+        }
+
+        boolean hasRemaining() {
+            return buffer.hasRemaining();
+        }
+    }
+}
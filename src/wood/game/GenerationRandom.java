@@ -0,0 +1,73 @@
+package wood.game;
+
+/**
+ * A single-owner random number generator for world generation. It produces exactly the same sequence as
+ *  java.util.Random for the same seed, so existing world seeds and replays generate the same worlds, but keeps
+ *  its state in a plain field instead of an AtomicLong since only one GameEngine ever draws from it
+ */
+class GenerationRandom {
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;
+
+    GenerationRandom(long seed) {
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * @return A generator that will produce the same sequence from here on as this one, without affecting it
+     */
+    GenerationRandom copy() {
+        GenerationRandom copy = new GenerationRandom(0);
+        copy.state = this.state;
+        return copy;
+    }
+
+    /**
+     * @return The generator's internal state, which fromState turns back into a generator that carries on the same
+     */
+    long getState() {
+        return state;
+    }
+
+    /**
+     * @param state A state returned by getState
+     * @return A generator that will produce the same sequence as the one the state came from did from then on
+     */
+    static GenerationRandom fromState(long state) {
+        GenerationRandom random = new GenerationRandom(0);
+        random.state = state & MASK;
+        return random;
+    }
+
+    private int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * Same contract and sequence as java.util.Random.nextInt(int)
+     *
+     * @param bound The exclusive upper bound, must be positive
+     * @return A uniformly distributed int between 0 (inclusive) and bound (exclusive)
+     */
+    int nextInt(int bound) {
+        if(bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        int random = next(31);
+        int mask = bound - 1;
+        if((bound & mask) == 0) {
+            // Power of two
+            return (int) ((bound * (long) random) >> 31);
+        }
+
+        for(int unbiased = random; unbiased - (random = unbiased % bound) + mask < 0; unbiased = next(31)) {
+            // Reject values from the final partial range so every result is equally likely
+        }
+        return random;
+    }
+}
@@ -0,0 +1,122 @@
+package wood.game;
+
+import java.util.Arrays;
+
+/**
+ * Counts how many recorded durations fall into each of a fixed set of buckets, so percentiles can be read back
+ *  without keeping every sample. Durations under 128 nanoseconds get a bucket each, above that every power of two
+ *  is split into 64 buckets, so a reported percentile is never more than about 1.6% above the true value. Recording
+ *  is a few shifts and an array increment and never allocates, which keeps it cheap enough for every turn
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Anything longer than about 68 seconds is counted in the last bucket, no strategy call should get near it
+    private static final int MAX_VALUE_BITS = 36;
+    private static final long MAX_TRACKED_NANOS = (1L << MAX_VALUE_BITS) - 1;
+    private static final int NUMBER_OF_BUCKETS = bucketIndex(MAX_TRACKED_NANOS) + 1;
+
+    private long[] counts;
+    private long totalCount;
+    private long totalNanos;
+    private long maxNanos;
+
+    public LatencyHistogram() {
+        this.counts = new long[NUMBER_OF_BUCKETS];
+        this.totalCount = 0;
+        this.totalNanos = 0;
+        this.maxNanos = 0;
+    }
+
+    /**
+     * @param nanos How long the thing being measured took in nanoseconds, negative durations count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_TRACKED_NANOS);
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        totalNanos += value;
+        if(value > maxNanos) {
+            maxNanos = value;
+        }
+    }
+
+    /**
+     * Adds every duration recorded by another histogram to this one
+     *
+     * @param other The histogram to add, which is left unchanged
+     */
+    public void merge(LatencyHistogram other) {
+        for(int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        totalNanos += other.totalNanos;
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return The exact mean of every recorded duration in nanoseconds, or 0 if nothing has been recorded
+     */
+    public double getMeanNanos() {
+        return totalCount == 0 ? 0 : (double) totalNanos / totalCount;
+    }
+
+    /**
+     * Gets the duration that the given percentage of recorded durations are at or below. The answer is the top of
+     *  the bucket the percentile falls in, capped at the longest duration recorded
+     *
+     * @param percentile A percentage from 0 to 100, like 99.9
+     * @return The percentile in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if(totalCount == 0) {
+            return 0;
+        }
+
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long countSoFar = 0;
+        for(int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            countSoFar += counts[i];
+            if(countSoFar >= countAtPercentile) {
+                return Math.min(highestValueInBucket(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    private static int bucketIndex(long value) {
+        if(value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        // Keep the top SUB_BUCKET_BITS + 1 bits of the value, the leading one bit picks the upper half of the range
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long highestValueInBucket(int index) {
+        if(index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
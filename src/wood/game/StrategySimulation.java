@@ -0,0 +1,73 @@
+package wood.game;
+
+import wood.strategy.GameSimulation;
+import wood.strategy.PlayerBoardView;
+
+/**
+ * A GameSimulation played on a fork of the game from one player's side, see GameEngine.startSimulation
+ */
+class StrategySimulation implements GameSimulation {
+    private GameEngine engine;
+    private boolean isRedPlayer;
+
+    /**
+     * @param engine A fork of the game that nothing else plays
+     * @param isRedPlayer True if the strategy running the simulation is the red player
+     */
+    StrategySimulation(GameEngine engine, boolean isRedPlayer) {
+        this.engine = engine;
+        this.isRedPlayer = isRedPlayer;
+    }
+
+    @Override
+    public void advanceTurn(TurnAction yourAction, TurnAction otherPlayerAction) {
+        if(isRedPlayer) {
+            engine.advanceTurn(yourAction, otherPlayerAction);
+        } else {
+            engine.advanceTurn(otherPlayerAction, yourAction);
+        }
+    }
+
+    @Override
+    public GameSimulation fork() {
+        return new StrategySimulation(engine.fork(), isRedPlayer);
+    }
+
+    @Override
+    public PlayerBoardView getBoardView() {
+        return engine.getBoard().convertToView(getYourPlayer(), getOtherPlayer());
+    }
+
+    @Override
+    public int getYourScore() {
+        return getYourPlayer().getScore();
+    }
+
+    @Override
+    public int getOtherPlayerScore() {
+        return getOtherPlayer().getScore();
+    }
+
+    @Override
+    public int getTurnNumber() {
+        return engine.getTurnNumber();
+    }
+
+    @Override
+    public boolean isRedTurn() {
+        return engine.isRedTurn();
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return engine.isGameOver();
+    }
+
+    private WoodPlayer getYourPlayer() {
+        return isRedPlayer ? engine.getRedPlayer() : engine.getBluePlayer();
+    }
+
+    private WoodPlayer getOtherPlayer() {
+        return isRedPlayer ? engine.getBluePlayer() : engine.getRedPlayer();
+    }
+}
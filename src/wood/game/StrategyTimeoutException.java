@@ -0,0 +1,13 @@
+package wood.game;
+
+/**
+ * Thrown in place of a strategy's result when the strategy takes longer than its time budget, which the engine
+ *  handles the same way as the strategy throwing an exception itself
+ */
+public class StrategyTimeoutException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public StrategyTimeoutException(String message) {
+        super(message);
+    }
+}
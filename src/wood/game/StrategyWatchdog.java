@@ -0,0 +1,169 @@
+package wood.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs strategy calls on a separate thread and stops waiting for them once they run past their time budget, so a
+ *  slow or stuck strategy can't hold up the thread running the game. Every call has to finish within the per-turn
+ *  limit, and all of a player's calls together have to finish within the per-game limit. A call that runs over is
+ *  interrupted and abandoned: the thread it ran on is a daemon thread, so a strategy that ignores the interrupt
+ *  only costs that thread, never the game or the JVM exiting. A thread like that keeps a core busy for as long as
+ *  the JVM runs though, so every game it's abandoned in is counted against the strategy's class. Once
+ *  MAX_STUCK_THREADS_PER_STRATEGY threads of one strategy class are still running, every game that strategy plays
+ *  after is refused: its first call throws a StrategyTimeoutException without running, and it loses that game
+ *  the same as if it had run over. Threads that do finish stop counting, so a strategy is only refused while it
+ *  really is holding that many threads
+ */
+class StrategyWatchdog {
+    static final int MAX_STUCK_THREADS_PER_STRATEGY = 4;
+    // Shared by every game in the JVM, since abandoned threads outlive the game they were abandoned in
+    private static final Map<Class<?>, List<Thread>> stuckThreadsByStrategy = new HashMap<>();
+
+    private long turnTimeLimitNanos;
+    private long gameTimeLimitNanos;
+    private long redTimeUsedNanos;
+    private long blueTimeUsedNanos;
+    private ExecutorService strategyThread;
+    private volatile Thread callThread;
+    private Class<?> overrunStrategyClass;
+    private boolean redStrategyChecked;
+    private boolean blueStrategyChecked;
+
+    /**
+     * @param turnTimeLimitMillis How long one strategy call can take, or 0 for no limit
+     * @param gameTimeLimitMillis How long all of one player's calls can take together, or 0 for no limit
+     */
+    StrategyWatchdog(long turnTimeLimitMillis, long gameTimeLimitMillis) {
+        this.turnTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(turnTimeLimitMillis);
+        this.gameTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(gameTimeLimitMillis);
+        this.redTimeUsedNanos = 0;
+        this.blueTimeUsedNanos = 0;
+        this.overrunStrategyClass = null;
+        this.redStrategyChecked = false;
+        this.blueStrategyChecked = false;
+        this.strategyThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "strategy-watchdog");
+            thread.setDaemon(true);
+            callThread = thread;
+            return thread;
+        });
+    }
+
+    /**
+     * Runs a strategy call for a player and waits for its result for as long as the player's budget allows
+     *
+     * @param player The player whose strategy is being called
+     * @param strategyCall The call to make
+     * @param <T> The type the call returns
+     * @return What the call returned
+     * @throws StrategyTimeoutException If the call ran past the player's per-turn or per-game limit, or the
+     *                                   strategy has too many threads stuck from earlier games to be run
+     */
+    <T> T call(WoodPlayer player, Callable<T> strategyCall) {
+        if(!(player.isRedPlayer() ? redStrategyChecked : blueStrategyChecked)) {
+            refuseIfStuck(player);
+        }
+
+        long timeAllowedNanos = getTimeAllowedNanos(player);
+        long startTime = System.nanoTime();
+        Future<T> result = strategyThread.submit(strategyCall);
+        try {
+            return result.get(timeAllowedNanos, TimeUnit.NANOSECONDS);
+        } catch(TimeoutException e) {
+            result.cancel(true);
+            if(overrunStrategyClass == null) {
+                // Calls after this one queue up behind it, so only the first call to run over can be the one stuck
+                overrunStrategyClass = player.getStrategy().getClass();
+            }
+            String playerName = player.isRedPlayer() ? "Red" : "Blue";
+            throw new StrategyTimeoutException(playerName + " player's strategy ran past its time limit of "
+                                               + TimeUnit.NANOSECONDS.toMillis(timeAllowedNanos) + "ms");
+        } catch(ExecutionException e) {
+            // Rethrow whatever the strategy threw as if it had been called directly
+            Throwable strategyException = e.getCause();
+            if(strategyException instanceof RuntimeException) {
+                throw (RuntimeException) strategyException;
+            }
+            if(strategyException instanceof Error) {
+                throw (Error) strategyException;
+            }
+            throw new RuntimeException(strategyException);
+        } catch(InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a strategy", e);
+        } finally {
+            addTimeUsed(player, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Stops the strategy thread, interrupting it if a strategy that ran over is still going. If it is, the thread is
+     *  counted against the strategy's class until it finishes, see MAX_STUCK_THREADS_PER_STRATEGY
+     */
+    void shutdown() {
+        strategyThread.shutdownNow();
+        Thread thread = callThread;
+        if(overrunStrategyClass != null && thread != null && thread.isAlive()) {
+            addStuckThread(overrunStrategyClass, thread);
+        }
+    }
+
+    private void refuseIfStuck(WoodPlayer player) {
+        int stuckThreads = countStuckThreads(player.getStrategy().getClass());
+        if(stuckThreads >= MAX_STUCK_THREADS_PER_STRATEGY) {
+            String playerName = player.isRedPlayer() ? "Red" : "Blue";
+            throw new StrategyTimeoutException(playerName + " player's strategy is refused, " + stuckThreads
+                                               + " of its calls from earlier games are still running");
+        }
+
+        if(player.isRedPlayer()) {
+            redStrategyChecked = true;
+        } else {
+            blueStrategyChecked = true;
+        }
+    }
+
+    private static synchronized int countStuckThreads(Class<?> strategyClass) {
+        List<Thread> stuckThreads = stuckThreadsByStrategy.get(strategyClass);
+        if(stuckThreads == null) {
+            return 0;
+        }
+        stuckThreads.removeIf(thread -> !thread.isAlive());
+        return stuckThreads.size();
+    }
+
+    private static synchronized void addStuckThread(Class<?> strategyClass, Thread thread) {
+        stuckThreadsByStrategy.computeIfAbsent(strategyClass, key -> new ArrayList<>()).add(thread);
+    }
+
+    private long getTimeAllowedNanos(WoodPlayer player) {
+        long timeAllowedNanos = Long.MAX_VALUE;
+        if(turnTimeLimitNanos > 0) {
+            timeAllowedNanos = turnTimeLimitNanos;
+        }
+        if(gameTimeLimitNanos > 0) {
+            long timeUsedNanos = player.isRedPlayer() ? redTimeUsedNanos : blueTimeUsedNanos;
+            timeAllowedNanos = Math.min(timeAllowedNanos, Math.max(gameTimeLimitNanos - timeUsedNanos, 0));
+        }
+        return timeAllowedNanos;
+    }
+
+    private void addTimeUsed(WoodPlayer player, long elapsedNanos) {
+        if(player.isRedPlayer()) {
+            redTimeUsedNanos += elapsedNanos;
+        } else {
+            blueTimeUsedNanos += elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package wood.game;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the location of every tile grouped by TileType so the board can count tiles of a type and visit only
+ *  the tiles of that type. Locations are row-major tile indices, the same indices GameBoard uses for its arrays.
+ *  Every update is O(1): each tile remembers its slot in its type's list, and removing a tile moves the last
+ *  entry of the list into the freed slot. Slots are kept in pages that are only allocated once a tile in them is
+ *  tracked, so an index that doesn't track the initial type only costs memory for the tiles that changed. The
+ *  lists of locations are kept in pages the same way. Copies share every page until one side writes to a shared
+ *  page, at which point that side gets its own copy of it, so copying an index only copies its tables of pages
+ */
+class TileLocationIndex {
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final byte NO_UNTRACKED_TYPE = -1;
+
+    private int[][][] locationPagesByType;
+    private boolean[][] ownsLocationPage;
+    private int[] countsByType;
+    private int[][] slotPages;
+    private boolean[] ownsSlotPage;
+    private byte untrackedType;
+
+    /**
+     * Creates an index where every tile on the board starts out as the same type
+     *
+     * @param numberOfTiles The number of tiles on the board
+     * @param numberOfTypes The number of different tile types
+     * @param initialType The type every tile starts out as
+     * @param trackInitialType False to only count tiles of the initial type instead of also listing where they are,
+     *                         which keeps the index small when almost every tile stays the initial type
+     */
+    TileLocationIndex(int numberOfTiles, int numberOfTypes, byte initialType, boolean trackInitialType) {
+        this.locationPagesByType = new int[numberOfTypes][][];
+        this.ownsLocationPage = new boolean[numberOfTypes][];
+        this.countsByType = new int[numberOfTypes];
+        this.slotPages = new int[(numberOfTiles >> PAGE_BITS) + 1][];
+        this.ownsSlotPage = new boolean[slotPages.length];
+        this.untrackedType = trackInitialType ? NO_UNTRACKED_TYPE : initialType;
+
+        // Every type starts out with one page, so the first few tiles of a type don't allocate mid-game
+        for(int type = 0; type < numberOfTypes; type++) {
+            locationPagesByType[type] = new int[1][PAGE_SIZE];
+            ownsLocationPage[type] = new boolean[]{true};
+        }
+
+        if(trackInitialType) {
+            int numberOfPages = (numberOfTiles >> PAGE_BITS) + 1;
+            locationPagesByType[initialType] = new int[numberOfPages][];
+            ownsLocationPage[initialType] = new boolean[numberOfPages];
+            for(int location = 0; location < numberOfTiles; location++) {
+                setLocation(initialType, location, location);
+                setSlot(location, location);
+            }
+        }
+        countsByType[initialType] = numberOfTiles;
+    }
+
+    private TileLocationIndex(TileLocationIndex original) {
+        this.locationPagesByType = new int[original.locationPagesByType.length][][];
+        this.ownsLocationPage = new boolean[locationPagesByType.length][];
+        for(int type = 0; type < locationPagesByType.length; type++) {
+            locationPagesByType[type] = original.locationPagesByType[type].clone();
+            ownsLocationPage[type] = new boolean[locationPagesByType[type].length];
+        }
+        this.countsByType = original.countsByType.clone();
+        this.slotPages = original.slotPages.clone();
+        this.ownsSlotPage = new boolean[slotPages.length];
+        this.untrackedType = original.untrackedType;
+    }
+
+    /**
+     * @return An index with the same contents as this one that can be changed independently of it
+     */
+    TileLocationIndex copy() {
+        // Neither side owns the pages that exist now, so whichever writes to one first copies it
+        for(int type = 0; type < ownsLocationPage.length; type++) {
+            Arrays.fill(ownsLocationPage[type], false);
+        }
+        Arrays.fill(ownsSlotPage, false);
+        return new TileLocationIndex(this);
+    }
+
+    /**
+     * Records that the tile at a location changed from one type to another
+     *
+     * @param location The row-major index of the tile that changed
+     * @param oldType The type the tile used to be
+     * @param newType The type the tile is now
+     */
+    void changeType(int location, byte oldType, byte newType) {
+        if(oldType == untrackedType) {
+            countsByType[oldType]--;
+        } else {
+            // Move the last location of the old type into the slot this location is leaving
+            int freedSlot = getSlot(location);
+            int lastLocation = locationAt(oldType, --countsByType[oldType]);
+            setLocation(oldType, freedSlot, lastLocation);
+            setSlot(lastLocation, freedSlot);
+        }
+
+        if(newType == untrackedType) {
+            countsByType[newType]++;
+            return;
+        }
+
+        int newSlot = countsByType[newType]++;
+        setLocation(newType, newSlot, location);
+        setSlot(location, newSlot);
+    }
+
+    /**
+     * @param type The tile type to count
+     * @return How many tiles of the type are on the board
+     */
+    int count(byte type) {
+        return countsByType[type];
+    }
+
+    /**
+     * @param type The tile type to check
+     * @return True if locationAt can be used for the type, false if the index only counts tiles of that type
+     */
+    boolean tracksLocationsOf(byte type) {
+        return type != untrackedType;
+    }
+
+    /**
+     * Gets one of the locations of a type, slots are in no particular order and change as tiles change
+     *
+     * @param type The tile type to get a location of, which must be one the index tracks locations of
+     * @param slot A number from 0 (inclusive) to count(type) (exclusive)
+     * @return The row-major index of a tile of that type
+     */
+    int locationAt(byte type, int slot) {
+        return locationPagesByType[type][slot >> PAGE_BITS][slot & PAGE_MASK];
+    }
+
+    /**
+     * Puts the locations of a type into the given slot order. Which slot each location is in decides which tile a
+     *  slot number picks, so restoring a board that has to pick the same tiles as the original needs its order back
+     *
+     * @param type The tile type to reorder, which must be one the index tracks locations of
+     * @param locations Every location of that type, each exactly once, in the order they should be in
+     */
+    void reorder(byte type, int[] locations) {
+        if(locations.length != countsByType[type]) {
+            throw new IllegalArgumentException("Expected " + countsByType[type] + " locations, got " + locations.length);
+        }
+        for(int i = 0; i < locations.length; i++) {
+            int slot = getSlotIfPresent(locations[i]);
+            if(slot < 0 || slot >= countsByType[type] || locationAt(type, slot) != locations[i]) {
+                throw new IllegalArgumentException("Location " + locations[i] + " isn't of type " + type);
+            }
+        }
+
+        for(int slot = 0; slot < locations.length; slot++) {
+            setLocation(type, slot, locations[slot]);
+            setSlot(locations[slot], slot);
+        }
+        for(int slot = 0; slot < locations.length; slot++) {
+            if(getSlot(locations[slot]) != slot) {
+                throw new IllegalArgumentException("Location " + locations[slot] + " is listed more than once");
+            }
+        }
+    }
+
+    private int getSlotIfPresent(int location) {
+        if(location < 0 || (location >> PAGE_BITS) >= slotPages.length) {
+            return -1;
+        }
+        int[] slotPage = slotPages[location >> PAGE_BITS];
+        return (slotPage == null) ? -1 : slotPage[location & PAGE_MASK];
+    }
+
+    private int getSlot(int location) {
+        return slotPages[location >> PAGE_BITS][location & PAGE_MASK];
+    }
+
+    private void setSlot(int location, int slot) {
+        int page = location >> PAGE_BITS;
+        int[] slotPage = slotPages[page];
+        if(slotPage == null) {
+            slotPage = new int[PAGE_SIZE];
+            slotPages[page] = slotPage;
+            ownsSlotPage[page] = true;
+        } else if(!ownsSlotPage[page]) {
+            slotPage = slotPage.clone();
+            slotPages[page] = slotPage;
+            ownsSlotPage[page] = true;
+        }
+        slotPage[location & PAGE_MASK] = slot;
+    }
+
+    private void setLocation(byte type, int slot, int location) {
+        int page = slot >> PAGE_BITS;
+        int[][] locationPages = locationPagesByType[type];
+        if(page == locationPages.length) {
+            locationPages = Arrays.copyOf(locationPages, locationPages.length * 2);
+            locationPagesByType[type] = locationPages;
+            ownsLocationPage[type] = Arrays.copyOf(ownsLocationPage[type], locationPages.length);
+        }
+
+        int[] locationPage = locationPages[page];
+        if(locationPage == null) {
+            locationPage = new int[PAGE_SIZE];
+            locationPages[page] = locationPage;
+            ownsLocationPage[type][page] = true;
+        } else if(!ownsLocationPage[type][page]) {
+            locationPage = locationPage.clone();
+            locationPages[page] = locationPage;
+            ownsLocationPage[type][page] = true;
+        }
+        locationPage[slot & PAGE_MASK] = location;
+    }
+}
@@ -0,0 +1,32 @@
+package wood.game;
+
+/**
+ * Where a GameBoard keeps the type and value of each of its tiles, addressed by row-major tile index
+ *  (y * size + x). FlatTileStorage keeps every tile in one pair of arrays, ChunkedTileStorage only keeps the parts of
+ *  the board that have had something other than an empty tile written to them
+ */
+interface TileStorage {
+    /**
+     * @param index The row-major index of the tile
+     * @return The TileType ordinal of the tile
+     */
+    byte getType(int index);
+
+    /**
+     * @param index The row-major index of the tile
+     * @return The value stored with the tile, 0 for tiles that were never written
+     */
+    int getValue(int index);
+
+    /**
+     * @param index The row-major index of the tile
+     * @param type The TileType ordinal to store
+     * @param value The value to store with the tile
+     */
+    void setTile(int index, byte type, int value);
+
+    /**
+     * @return A copy of this storage that can be changed without affecting this one, and the other way around
+     */
+    TileStorage copy();
+}
@@ -0,0 +1,80 @@
+package wood.game;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+public class TournamentResult {
+    private int matchesPlayed;
+    private int blueWins;
+    private List<Long> losingSeeds;
+    private EngineMetrics metrics;
+    private Map<String, EngineMetrics> strategyMetrics;
+
+    public TournamentResult(int matchesPlayed, int blueWins, List<Long> losingSeeds) {
+        this(matchesPlayed, blueWins, losingSeeds, null, null);
+    }
+
+    public TournamentResult(int matchesPlayed, int blueWins, List<Long> losingSeeds, EngineMetrics metrics,
+                            Map<String, EngineMetrics> strategyMetrics) {
+        this.matchesPlayed = matchesPlayed;
+        this.blueWins = blueWins;
+        this.losingSeeds = losingSeeds;
+        this.metrics = metrics;
+        this.strategyMetrics = strategyMetrics;
+    }
+
+    public int getMatchesPlayed() {
+        return matchesPlayed;
+    }
+
+    public int getBlueWins() {
+        return blueWins;
+    }
+
+    /**
+     * @return The fraction of matches the blue player won, ties count as a loss for blue
+     */
+    public double getBlueWinPercentage() {
+        return (double) blueWins / matchesPlayed;
+    }
+
+    /**
+     * @return The world seeds of every match blue did not win, in the order the seeds were given
+     */
+    public List<Long> getLosingSeeds() {
+        return losingSeeds;
+    }
+
+    /**
+     * @return The metrics of every match added together, or null if the tournament was run without metrics
+     */
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return The metrics of every match added together for each strategy, keyed by the strategy's name, or null if
+     *          the tournament was run without metrics
+     */
+    public Map<String, EngineMetrics> getStrategyMetrics() {
+        return strategyMetrics;
+    }
+
+    /**
+     * Prints the tournament's metrics as a whole and then for each strategy, see EngineMetrics.printSummary. Prints
+     *  nothing if the tournament was run without metrics
+     *
+     * @param output Where to print the metrics
+     */
+    public void printMetrics(PrintStream output) {
+        if (metrics == null) {
+            return;
+        }
+
+        metrics.printSummary(output, "All matches (microseconds)");
+        for (Map.Entry<String, EngineMetrics> entry : strategyMetrics.entrySet()) {
+            entry.getValue().printSummary(output, entry.getKey() + " (microseconds)");
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package wood.game;
+
+import wood.replay.ReplayArchive;
+import wood.strategy.WoodPlayerStrategy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+public class TournamentRunner {
+    // Small enough that the work-stealing pool can balance out long and short games between workers
+    private static final int MATCHES_PER_TASK = 4;
+
+    private int boardSize;
+    private Supplier<WoodPlayerStrategy> redStrategyFactory;
+    private Supplier<WoodPlayerStrategy> blueStrategyFactory;
+    private int parallelism;
+    private long turnTimeLimitMillis;
+    private long gameTimeLimitMillis;
+    private boolean metricsEnabled;
+    private EngineMetrics metrics;
+    private Map<String, EngineMetrics> strategyMetrics;
+    private ReplayArchive replayArchive;
+    private boolean outcomesRecorded;
+
+    /**
+     * Creates a TournamentRunner that plays every match on a fresh GameEngine with fresh strategy instances
+     *
+     * @param boardSize The size of the board used for every match
+     * @param redStrategyFactory Creates a new red player strategy for each match
+     * @param blueStrategyFactory Creates a new blue player strategy for each match
+     */
+    public TournamentRunner(int boardSize, Supplier<WoodPlayerStrategy> redStrategyFactory,
+                            Supplier<WoodPlayerStrategy> blueStrategyFactory) {
+        this.boardSize = boardSize;
+        this.redStrategyFactory = redStrategyFactory;
+        this.blueStrategyFactory = blueStrategyFactory;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        this.turnTimeLimitMillis = 0;
+        this.gameTimeLimitMillis = 0;
+        this.metricsEnabled = false;
+        this.replayArchive = null;
+        this.outcomesRecorded = false;
+    }
+
+    /**
+     * Sets how many worker threads play matches at the same time. A parallelism of 1 plays every match on a
+     *  single worker one after another
+     *
+     * @param parallelism The number of worker threads to use, must be at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the time limits every match is played with, see GameEngine.setTimeLimits. With limits set, a slow or
+     *  stuck strategy can only hold up its worker for as long as its budget before losing the match
+     *
+     * @param turnTimeLimitMillis How long a strategy can take for a single call, or 0 for no limit
+     * @param gameTimeLimitMillis How long all of one strategy's calls can take in a match, or 0 for no limit
+     */
+    public void setTimeLimits(long turnTimeLimitMillis, long gameTimeLimitMillis) {
+        if(turnTimeLimitMillis < 0 || gameTimeLimitMillis < 0) {
+            throw new IllegalArgumentException("Time limits can't be negative");
+        }
+        this.turnTimeLimitMillis = turnTimeLimitMillis;
+        this.gameTimeLimitMillis = gameTimeLimitMillis;
+    }
+
+    /**
+     * Sets whether every match is played with GameEngine metrics enabled. The metrics of all the matches are added
+     *  together into the TournamentResult, both for the tournament as a whole and for each strategy by name
+     *
+     * @param metricsEnabled True to time every phase of every turn, false to play without timing anything
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Sets an archive to add the replay of every match to, along with the names of the strategies that played it.
+     *  The archive isn't closed when the tournament ends, so several tournaments can share one
+     *
+     * @param replayArchive The archive to add replays to, or null to not keep replays
+     */
+    public void setReplayArchive(ReplayArchive replayArchive) {
+        this.replayArchive = replayArchive;
+    }
+
+    /**
+     * Sets whether the replay of every match records how the match turned out, see GameEngine.setOutcomeRecorded,
+     *  so the archived replays can be checked with ReplayVerifier
+     *
+     * @param outcomesRecorded True to record outcomes, false to keep replays as small as possible
+     */
+    public void setOutcomesRecorded(boolean outcomesRecorded) {
+        this.outcomesRecorded = outcomesRecorded;
+    }
+
+    /**
+     * Plays one match for every world seed in the list, spreading the matches across a work-stealing pool.
+     *  Every match is independent, so the result is the same as playing the seeds one after another in order
+     *
+     * @param worldSeeds The world seeds to play, one match per seed
+     * @return The aggregated TournamentResult of all the matches
+     */
+    public TournamentResult runMatches(List<Long> worldSeeds) {
+        long[] seeds = new long[worldSeeds.size()];
+        for(int i = 0; i < seeds.length; i++) {
+            seeds[i] = worldSeeds.get(i);
+        }
+
+        // Each match writes only its own slot, so aggregating afterwards keeps the original seed order
+        boolean[] blueWon = new boolean[seeds.length];
+        metrics = metricsEnabled ? new EngineMetrics() : null;
+        strategyMetrics = metricsEnabled ? new LinkedHashMap<>() : null;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new MatchRangeTask(seeds, blueWon, 0, seeds.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Long> losingSeeds = new ArrayList<>();
+        int blueWins = 0;
+        for(int i = 0; i < seeds.length; i++) {
+            if(blueWon[i]) {
+                blueWins++;
+            } else {
+                losingSeeds.add(seeds[i]);
+            }
+        }
+
+        return new TournamentResult(seeds.length, blueWins, losingSeeds, metrics, strategyMetrics);
+    }
+
+    private boolean playMatch(long worldSeed) {
+        WoodPlayerStrategy redStrategy = redStrategyFactory.get();
+        WoodPlayerStrategy blueStrategy = blueStrategyFactory.get();
+        GameEngine gameEngine = new GameEngine(boardSize, redStrategy, blueStrategy, worldSeed);
+        gameEngine.setHeadless(true);
+        gameEngine.setTimeLimits(turnTimeLimitMillis, gameTimeLimitMillis);
+        gameEngine.setMetricsEnabled(metricsEnabled);
+        gameEngine.setOutcomeRecorded(outcomesRecorded);
+        try {
+            gameEngine.runGame();
+            if (metricsEnabled) {
+                addMetrics(gameEngine);
+            }
+            if (replayArchive != null) {
+                archiveReplay(gameEngine);
+            }
+        } finally {
+            // Strategies that hold on to something outside the JVM, like a RemoteStrategy's child process, are
+            // made fresh for every match and so have to be let go of after every match
+            closeIfCloseable(redStrategy);
+            closeIfCloseable(blueStrategy);
+        }
+
+        // Ties go to red, the same way the sequential tournament loop always counted them
+        return gameEngine.getBluePlayerScore() > gameEngine.getRedPlayerScore();
+    }
+
+    private void addMetrics(GameEngine gameEngine) {
+        // Asking the strategies now could hang on one that ran over, so use the names the engine asked for up front
+        String redName = gameEngine.getRedStrategyName();
+        String blueName = gameEngine.getBlueStrategyName();
+
+        // Matches finish on several workers at once. Merging is a few thousand additions, so one lock is plenty
+        synchronized (this) {
+            metrics.merge(gameEngine.getMetrics());
+            strategyMetrics.computeIfAbsent(redName, name -> new EngineMetrics()).merge(gameEngine.getRedPlayerMetrics());
+            strategyMetrics.computeIfAbsent(blueName, name -> new EngineMetrics()).merge(gameEngine.getBluePlayerMetrics());
+        }
+    }
+
+    private void archiveReplay(GameEngine gameEngine) {
+        try {
+            replayArchive.append(gameEngine.getReplay(), gameEngine.getRedStrategyName(),
+                                 gameEngine.getBlueStrategyName());
+        } catch (IOException e) {
+            System.err.println("There was an error archiving the replay of seed " + gameEngine.getRandomSeed());
+            e.printStackTrace();
+        }
+    }
+
+    private static void closeIfCloseable(WoodPlayerStrategy strategy) {
+        if(strategy instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) strategy).close();
+            } catch(Exception e) {
+                // The match is already decided, a strategy failing to clean up doesn't change it
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private class MatchRangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private long[] seeds;
+        private boolean[] blueWon;
+        private int start;
+        private int end;
+
+        MatchRangeTask(long[] seeds, boolean[] blueWon, int start, int end) {
+            this.seeds = seeds;
+            this.blueWon = blueWon;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start <= MATCHES_PER_TASK) {
+                for(int i = start; i < end; i++) {
+                    blueWon[i] = playMatch(seeds[i]);
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new MatchRangeTask(seeds, blueWon, start, middle),
+                      new MatchRangeTask(seeds, blueWon, middle, end));
+        }
+    }
+}
@@ -3,12 +3,12 @@ package wood.game;
 import wood.graphics.ImageManager;
 import wood.item.InventoryItem;
 import wood.item.ItemType;
+import wood.item.SeedItem;
+import wood.item.WoodItem;
 import wood.strategy.WoodPlayerStrategy;
-import wood.tiles.Tile;
 
 import java.awt.*;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
@@ -16,46 +16,153 @@ import java.util.Map;
 public class WoodPlayer {
     protected static final int MAX_ITEMS = 5;
     private static final Map<TurnAction, String> moveToDirectionMap = new HashMap<>();
+    private static final Map<TurnAction, String> redSpriteNames = new HashMap<>();
+    private static final Map<TurnAction, String> blueSpriteNames = new HashMap<>();
     static {
         moveToDirectionMap.put(TurnAction.MOVE_UP, "back");
         moveToDirectionMap.put(TurnAction.MOVE_DOWN, "front");
         moveToDirectionMap.put(TurnAction.MOVE_LEFT, "left");
         moveToDirectionMap.put(TurnAction.MOVE_RIGHT, "right");
+        for (Map.Entry<TurnAction, String> move : moveToDirectionMap.entrySet()) {
+            redSpriteNames.put(move.getKey(), "red_bot_" + move.getValue());
+            blueSpriteNames.put(move.getKey(), "blue_bot_" + move.getValue());
+        }
     }
 
     private WoodPlayerStrategy strategy;
     private List<InventoryItem> inventory;
-    private Tile currentTile;
+    private Point location;
     private boolean isRedPlayer;
     private int score;
     private TurnAction lastMove;
     private List<TurnAction> actions;
+    private long stateHash;
+    private StrategyWatchdog strategyWatchdog;
 
-    public WoodPlayer(WoodPlayerStrategy strategy, Tile startingTile, boolean isRedPlayer) {
+    public WoodPlayer(WoodPlayerStrategy strategy, Point startingLocation, boolean isRedPlayer) {
         this.strategy = strategy;
         this.inventory = new ArrayList<>(MAX_ITEMS);
-        this.currentTile = startingTile;
+        this.location = new Point(startingLocation.x, startingLocation.y);
         this.isRedPlayer = isRedPlayer;
         this.score = 0;
         this.lastMove = TurnAction.MOVE_DOWN;
-        this.actions = new LinkedList<>();
+        // Sized for a full game so recording a turn never has to grow the list
+        this.actions = new ArrayList<>(GameEngine.MAX_TURNS_PER_GAME);
+        this.stateHash = ZobristKeys.positionKey(isRedPlayer, location.x, location.y)
+                         ^ ZobristKeys.scoreKey(isRedPlayer, 0);
+    }
+
+    /**
+     * Copies a player's position, inventory and score for a forked game. The copy has no strategy and no history of
+     *  turn actions, since it's only ever given actions directly
+     *
+     * @param original The player to copy
+     */
+    WoodPlayer(WoodPlayer original) {
+        this.strategy = null;
+        this.inventory = new ArrayList<>(original.inventory);
+        this.location = new Point(original.location.x, original.location.y);
+        this.isRedPlayer = original.isRedPlayer;
+        this.score = original.score;
+        this.lastMove = original.lastMove;
+        this.actions = new ArrayList<>(0);
+        this.stateHash = original.stateHash;
+    }
+
+    /**
+     * Writes the player's position, score, inventory and facing to a keyframe, see GameKeyframe
+     */
+    void writeKeyframe(GameKeyframe.Writer writer) {
+        writer.writeVarint(location.x);
+        writer.writeVarint(location.y);
+        writer.writeSignedVarint(score);
+        writer.writeByte(lastMove.ordinal());
+        writer.writeVarint(inventory.size());
+        for (int i = 0; i < inventory.size(); i++) {
+            InventoryItem item = inventory.get(i);
+            writer.writeByte(item.getType().ordinal());
+            writer.writeSignedVarint(item.getValue());
+        }
+    }
+
+    /**
+     * Reads back a player written by writeKeyframe. Like a forked player, it has no strategy and no history of turn
+     *  actions
+     *
+     * @param reader The keyframe to read the player from
+     * @param isRedPlayer Which player was written
+     * @return The player as it was when the keyframe was captured
+     */
+    static WoodPlayer readKeyframe(GameKeyframe.Reader reader, boolean isRedPlayer) {
+        Point location = new Point(reader.readInt(), reader.readInt());
+        WoodPlayer player = new WoodPlayer(null, location, isRedPlayer);
+        player.actions = new ArrayList<>(0);
+        player.setScore(reader.readSignedInt());
+
+        int lastMoveOrdinal = reader.readByte();
+        TurnAction[] turnActions = TurnAction.values();
+        if (lastMoveOrdinal < 0 || lastMoveOrdinal >= turnActions.length) {
+            throw new IllegalArgumentException("Unknown facing in keyframe: " + lastMoveOrdinal);
+        }
+        player.lastMove = turnActions[lastMoveOrdinal];
+
+        int inventorySize = reader.readInt();
+        if (inventorySize > MAX_ITEMS) {
+            throw new IllegalArgumentException("Too many items in keyframe inventory: " + inventorySize);
+        }
+        for (int i = 0; i < inventorySize; i++) {
+            byte itemType = reader.readByte();
+            int value = reader.readSignedInt();
+            if (itemType == ItemType.SEED.ordinal()) {
+                player.addItemToInventory(SeedItem.valueOf(value));
+            } else if (itemType == ItemType.WOOD.ordinal()) {
+                player.addItemToInventory(WoodItem.valueOf(value));
+            } else {
+                throw new IllegalArgumentException("Unknown item type in keyframe: " + itemType);
+            }
+        }
+        return player;
     }
 
     public WoodPlayerStrategy getStrategy() {
         return strategy;
     }
 
-    public Tile getCurrentTile() {
-        return currentTile;
+    /**
+     * Has the strategy told about the items it receives through a watchdog, the same as every other strategy call
+     *  while a game has time limits
+     *
+     * @param strategyWatchdog The watchdog of the game being played, or null to call the strategy directly
+     */
+    void setStrategyWatchdog(StrategyWatchdog strategyWatchdog) {
+        this.strategyWatchdog = strategyWatchdog;
     }
 
-    public void setCurrentTile(Tile newTile) {
-        this.currentTile = newTile;
+    /**
+     * @return The player's current location on the board. This is the player's own Point, so copy it before handing
+     *          it to anything that shouldn't be able to move the player
+     */
+    public Point getLocation() {
+        return location;
+    }
+
+    public void setLocation(int x, int y) {
+        stateHash ^= ZobristKeys.positionKey(isRedPlayer, location.x, location.y);
+        stateHash ^= ZobristKeys.positionKey(isRedPlayer, x, y);
+        this.location.setLocation(x, y);
     }
 
     public void addItemToInventory(InventoryItem itemToAdd) {
         if (inventory.size() < MAX_ITEMS) {
-            this.strategy.receiveItem(itemToAdd);
+            if (strategyWatchdog != null) {
+                strategyWatchdog.call(this, () -> {
+                    strategy.receiveItem(itemToAdd);
+                    return null;
+                });
+            } else if (strategy != null) {
+                this.strategy.receiveItem(itemToAdd);
+            }
+            stateHash ^= inventorySlotKey(inventory.size(), itemToAdd);
             inventory.add(itemToAdd);
         }
     }
@@ -63,15 +170,38 @@ public class WoodPlayer {
     public InventoryItem removeFirstItemOfType(ItemType typeToRemove) {
         for (int i = 0; i < inventory.size(); i++) {
             if (inventory.get(i).getType() == typeToRemove) {
-                return inventory.remove(i);
+                // Every item after the removed one shifts down a slot, which is at most MAX_ITEMS keys to swap
+                for (int slot = i; slot < inventory.size(); slot++) {
+                    stateHash ^= inventorySlotKey(slot, inventory.get(slot));
+                }
+                InventoryItem removedItem = inventory.remove(i);
+                for (int slot = i; slot < inventory.size(); slot++) {
+                    stateHash ^= inventorySlotKey(slot, inventory.get(slot));
+                }
+                return removedItem;
             }
         }
 
         return null;
     }
 
+    /**
+     * Empties the inventory without telling the strategy, for a simulation's copy of a player whose inventory the
+     *  strategy running the simulation can't see
+     */
+    void clearInventory() {
+        for (int slot = 0; slot < inventory.size(); slot++) {
+            stateHash ^= inventorySlotKey(slot, inventory.get(slot));
+        }
+        inventory.clear();
+    }
+
+    private long inventorySlotKey(int slot, InventoryItem item) {
+        return ZobristKeys.inventoryKey(isRedPlayer, slot, item.getType().ordinal(), item.getValue());
+    }
+
     public void addToScore(int amountToAdd) {
-        this.score += amountToAdd;
+        setScore(this.score + amountToAdd);
     }
 
     public boolean isRedPlayer() {
@@ -83,9 +213,17 @@ public class WoodPlayer {
     }
 
     public void setScore(int newScore) {
+        stateHash ^= ZobristKeys.scoreKey(isRedPlayer, score) ^ ZobristKeys.scoreKey(isRedPlayer, newScore);
         this.score = newScore;
     }
 
+    /**
+     * @return A 64-bit hash of the player's position, score and inventory, see GameBoard.getStateHash
+     */
+    public long getStateHash() {
+        return stateHash;
+    }
+
     public void addTurnAction(TurnAction actionTaken) {
         actions.add(actionTaken);
 
@@ -110,9 +248,13 @@ public class WoodPlayer {
      * @return An Image for the direction the player is facing
      */
     public Image getImage(ImageManager imageManager) {
-        String playerColor = isRedPlayer ? "red_bot_" : "blue_bot_";
-        String directionName = moveToDirectionMap.get(lastMove);
+        return imageManager.getScaledImage(getSpriteName());
+    }
 
-        return imageManager.getScaledImage(playerColor + directionName);
+    /**
+     * @return The name of the sprite for the direction the player is currently facing, see ImageManager.drawSprite
+     */
+    public String getSpriteName() {
+        return isRedPlayer ? redSpriteNames.get(lastMove) : blueSpriteNames.get(lastMove);
     }
 }
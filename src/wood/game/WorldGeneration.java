@@ -1,69 +1,85 @@
 package wood.game;
 
-import wood.tiles.EmptyTile;
-import wood.tiles.SeedTile;
-import wood.tiles.StartTile;
-import wood.tiles.Tile;
 import wood.tiles.TileType;
 
 import java.awt.Point;
-import java.util.Random;
 
 public class WorldGeneration {
-    private static final Random rng = new Random();
     private static final int SEED_INITIAL_VALUE_MIN = 3;
     private static final int SEED_INITIAL_VALUE_MAX = 12;
+    // Guessing random tiles first keeps boards identical to the ones earlier versions generated for the same seed,
+    //  this just caps how long that can take once a region fills up
+    private static final int MAX_RANDOM_TILE_GUESSES = 32;
+
+    private GenerationRandom rng;
 
     /**
-     * Sets the random number generator's seed. Not to be confused with seeds in the game, giving a random number
-     *  generator a seed value means that it will always generate the same "random" sequence whenever it is provided
-     *  with the same value for a seed. This allows use to generate an unpredictable GameBoard, but also generate
-     *  that same exact GameBoard if necessary for replaying a match / reproducing bugs / other purposes
+     * Creates the world generation context for one match. Not to be confused with seeds in the game, giving a
+     *  random number generator a seed value means that it will always generate the same "random" sequence whenever
+     *  it is provided with the same value for a seed. This allows use to generate an unpredictable GameBoard, but
+     *  also generate that same exact GameBoard if necessary for replaying a match / reproducing bugs / other purposes.
+     *  Each GameEngine owns its own context, so matches running on different threads never share random state
      *
-     * @param newSeedValue The value to set as the random number generator's seed
+     * @param randomSeed The value to use as the random number generator's seed
+     */
+    protected WorldGeneration(long randomSeed) {
+        this.rng = new GenerationRandom(randomSeed);
+    }
+
+    private WorldGeneration(GenerationRandom rng) {
+        this.rng = rng;
+    }
+
+    /**
+     * @return A world generation context that will generate the same seeds from here on as this one would, without
+     *          affecting what this one generates
+     */
+    WorldGeneration copy() {
+        return new WorldGeneration(rng.copy());
+    }
+
+    /**
+     * Writes the world generation state to a keyframe, see GameKeyframe
      */
-    protected static void setRandomNumberSeed(long newSeedValue) {
-        rng.setSeed(newSeedValue);
+    void writeKeyframe(GameKeyframe.Writer writer) {
+        writer.writeVarint(rng.getState());
     }
 
     /**
-     * Generates a GameBoard by filling it with empty tiles, adding start tiles, and then generating seed tiles
+     * Reads back a world generation context written by writeKeyframe, which generates the same seeds from then on
+     *  as the one that was written
+     */
+    static WorldGeneration readKeyframe(GameKeyframe.Reader reader) {
+        return new WorldGeneration(GenerationRandom.fromState(reader.readVarint()));
+    }
+
+    /**
+     * Generates a GameBoard by starting with only empty tiles, adding start tiles, and then generating seed tiles
      *
      * @param boardSize The size of the board to generate
      * @return A GameBoard object ready for use in a round of Wood: The Gathering
+     * @throws IllegalArgumentException If the size is less than 1 or more than GameBoard.MAX_BOARD_SIZE
      */
-    protected static GameBoard generateBoard(int boardSize) {
-        // Fill board with empty tiles to begin with
-        Tile[][] tilesOnBoard = new Tile[boardSize][boardSize];
-        for (int i = 0; i < tilesOnBoard.length; i++) {
-            for (int j = 0; j < tilesOnBoard[i].length; j++) {
-                // The top left corner is index (0, 0) but location (0, maxY)
-                // This is so MOVE_UP actually moves up relative to the bottom of the screen
-                Point tileLocation = new Point(j, (boardSize - 1) - i);
-                tilesOnBoard[i][j] = new EmptyTile(tileLocation);
-            }
-        }
-
-        GameBoard board = new GameBoard(tilesOnBoard);
+    protected GameBoard generateBoard(int boardSize) {
+        GameBoard board = new GameBoard(boardSize);
         addStartTiles(board);
         generateInitialSeedTiles(board);
 
+        // Seeds only ever respawn across the whole board after this, so the quadrants don't need tracking any more
+        board.stopTrackingEmptyTileRegions();
         return board;
     }
 
-    private static void addStartTiles(GameBoard board) {
+    private void addStartTiles(GameBoard board) {
         Point redStartPoint = new Point(0, 0);
         Point blueStartPoint = new Point(board.getSize() - 1, board.getSize() - 1);
-        Tile redStartTile = new StartTile(redStartPoint, true);
-        Tile blueStartTile = new StartTile(blueStartPoint, false);
-
-        board.setTileAtLocation(redStartPoint, redStartTile);
-        board.setTileAtLocation(blueStartPoint, blueStartTile);
+        board.setTileAtLocation(redStartPoint.x, redStartPoint.y, TileType.START, 0);
+        board.setTileAtLocation(blueStartPoint.x, blueStartPoint.y, TileType.START, 0);
         board.setRedStartLocation(redStartPoint);
         board.setBlueStartLocation(blueStartPoint);
     }
 
-    private static void generateInitialSeedTiles(GameBoard board) {
+    private void generateInitialSeedTiles(GameBoard board) {
         // Ensure the board is an even size so it has non-overlapping quadrants
         int boardSize = board.getSize();
         assert (boardSize % 2 == 0);
@@ -76,8 +92,10 @@ public class WorldGeneration {
         generateSeedsForQuadrant(board, new Point(boardSize - 1, boardSize - 1), new Point(halfBoard, halfBoard));
     }
 
-    private static void generateSeedsForQuadrant(GameBoard board, Point firstCorner, Point secondCorner) {
+    private void generateSeedsForQuadrant(GameBoard board, Point firstCorner, Point secondCorner) {
         int numSeedsToGenerate = board.getSize() / 2;
+        board.trackEmptyTilesInRegion(Math.min(firstCorner.x, secondCorner.x), Math.min(firstCorner.y, secondCorner.y),
+                                      Math.max(firstCorner.x, secondCorner.x), Math.max(firstCorner.y, secondCorner.y));
 
         for(int i = 0; i < numSeedsToGenerate; i++) {
             generateNewSeedTile(board, firstCorner, secondCorner);
@@ -85,32 +103,63 @@ public class WorldGeneration {
     }
 
     /**
-     * Generates a new seed tile in the rectangle formed between the provided locations
+     * Generates a new seed tile in the rectangle formed between the provided locations. A few random tiles are
+     *  tried first, and if none of them are empty one of the rectangle's empty tiles is picked directly, so this
+     *  never takes more than a fixed number of guesses no matter how full the rectangle is
      *
      * @param board The GameBoard object on which to generate the SeedTiles
      * @param location1 The first point defining one corner of the rectangular area in which to generate seeds
      * @param location2 The second point defining the other corner of the rectangular area
+     * @return True if a seed was generated, false if there were no empty tiles in the rectangle
      */
-    protected static void generateNewSeedTile(GameBoard board, Point location1, Point location2) {
-        int minX = Math.min(location1.x, location2.x);
-        int minY = Math.min(location1.y, location2.y);
-        int maxX = Math.max(location1.x, location2.x);
-        int maxY = Math.max(location1.y, location2.y);
+    protected boolean generateNewSeedTile(GameBoard board, Point location1, Point location2) {
+        return generateNewSeedTile(board, Math.min(location1.x, location2.x), Math.min(location1.y, location2.y),
+                                   Math.max(location1.x, location2.x), Math.max(location1.y, location2.y));
+    }
+
+    /**
+     * Generates a new seed tile in a rectangle of the board, the same as the Point version without needing Points
+     *
+     * @param board The GameBoard object on which to generate the SeedTiles
+     * @param minX The smallest x coordinate in the rectangle
+     * @param minY The smallest y coordinate in the rectangle
+     * @param maxX The largest x coordinate in the rectangle
+     * @param maxY The largest y coordinate in the rectangle
+     * @return True if a seed was generated, false if there were no empty tiles in the rectangle
+     */
+    protected boolean generateNewSeedTile(GameBoard board, int minX, int minY, int maxX, int maxY) {
 
         // Get a random empty tile location
-        int randomX;
-        int randomY;
-        do {
+        int randomX = 0;
+        int randomY = 0;
+        boolean foundEmptyTile = false;
+        for(int guess = 0; guess < MAX_RANDOM_TILE_GUESSES && !foundEmptyTile; guess++) {
             randomX = rng.nextInt(maxX - minX + 1) + minX;
             randomY = rng.nextInt(maxY - minY + 1) + minY;
-        } while (board.getTileAtLocation(randomX, randomY).getType() != TileType.EMPTY);
+            foundEmptyTile = (board.getTileTypeAtLocation(randomX, randomY) == TileType.EMPTY);
+        }
+
+        if(!foundEmptyTile) {
+            // The rectangle is mostly full, pick uniformly from the empty tiles it has left
+            int numEmptyTiles = board.countEmptyTilesInRegion(minX, minY, maxX, maxY);
+            if(numEmptyTiles == 0) {
+                return false;
+            }
+
+            int tileIndex = board.getEmptyTileInRegion(minX, minY, maxX, maxY, rng.nextInt(numEmptyTiles));
+            randomX = tileIndex % board.getSize();
+            randomY = tileIndex / board.getSize();
+        }
 
         // Plop a seed down at the random tile with a random initial value
-        Point randomLocation = new Point(randomX, randomY);
-        int randomSeedValue = rng.nextInt(SEED_INITIAL_VALUE_MAX - SEED_INITIAL_VALUE_MIN + 1) + SEED_INITIAL_VALUE_MIN;
-        Point redStart = board.getRedStartTileLocation();
-        Point blueStart = board.getBlueStartTileLocation();
-        int boardSize = board.getSize();
-        board.setTileAtLocation(randomLocation, new SeedTile(randomLocation, randomSeedValue, redStart, blueStart, boardSize));
+        board.setTileAtLocation(randomX, randomY, TileType.SEED, generateSeedValue());
+        return true;
+    }
+
+    /**
+     * @return A random initial value for a new seed, drawn the same way as for a seed generated on the board
+     */
+    int generateSeedValue() {
+        return rng.nextInt(SEED_INITIAL_VALUE_MAX - SEED_INITIAL_VALUE_MIN + 1) + SEED_INITIAL_VALUE_MIN;
     }
 }
@@ -0,0 +1,66 @@
+package wood.game;
+
+/**
+ * Keys for the Zobrist hash of a game's state. The state hash is the XOR of one key per piece of state (every
+ *  non-empty tile, each player's position, score and inventory slots, and the turn number), so changing one piece
+ *  of state only takes XORing its old key out and its new key in. Keys are computed by mixing the piece's
+ *  coordinates rather than looked up in random tables, so boards of any size get keys without allocating anything
+ */
+final class ZobristKeys {
+    private static final long TILE_SALT = 0x2545F4914F6CDD1DL;
+    private static final long TURN_SALT = 0x9E3779B97F4A7C15L;
+    private static final long POSITION_SALT = 0xD1B54A32D192ED03L;
+    private static final long SCORE_SALT = 0x8CB92BA72F3D8DD7L;
+    private static final long INVENTORY_SALT = 0xABC98388FB8FAC03L;
+
+    private ZobristKeys() {
+    }
+
+    /**
+     * @param index The row-major index of the tile
+     * @param tileType The TileType ordinal of the tile
+     * @param tileValue The value the board stores for the tile
+     * @return The key for a tile in that state
+     */
+    static long tileKey(int index, byte tileType, int tileValue) {
+        return combine(TILE_SALT, (long) index << 8 | tileType, tileValue);
+    }
+
+    static long turnKey(int turnNumber) {
+        return combine(TURN_SALT, 0, turnNumber);
+    }
+
+    static long positionKey(boolean isRedPlayer, int x, int y) {
+        return combine(POSITION_SALT, playerBits(isRedPlayer) | x, y);
+    }
+
+    static long scoreKey(boolean isRedPlayer, int score) {
+        return combine(SCORE_SALT, playerBits(isRedPlayer), score);
+    }
+
+    /**
+     * @param isRedPlayer Whose inventory the item is in
+     * @param slot The item's position in the inventory
+     * @param itemTypeOrdinal The ItemType ordinal of the item
+     * @param value The item's value
+     * @return The key for that item being in that slot
+     */
+    static long inventoryKey(boolean isRedPlayer, int slot, int itemTypeOrdinal, int value) {
+        return combine(INVENTORY_SALT, playerBits(isRedPlayer) | (long) slot << 8 | itemTypeOrdinal, value);
+    }
+
+    private static long playerBits(boolean isRedPlayer) {
+        return isRedPlayer ? 1L << 48 : 2L << 48;
+    }
+
+    private static long combine(long salt, long what, int value) {
+        return mix(mix(salt ^ what) ^ value);
+    }
+
+    private static long mix(long bits) {
+        // The SplitMix64 finalizer, every input bit affects every output bit
+        bits = (bits ^ (bits >>> 30)) * 0xBF58476D1CE4E5B9L;
+        bits = (bits ^ (bits >>> 27)) * 0x94D049BB133111EBL;
+        return bits ^ (bits >>> 31);
+    }
+}
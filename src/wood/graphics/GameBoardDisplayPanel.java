@@ -1,14 +1,27 @@
 package wood.graphics;
 
+import wood.game.BoardFrame;
 import wood.game.GameBoard;
+import wood.tiles.EmptyTile;
+import wood.tiles.StartTile;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.Observable;
 import java.util.Observer;
 import javax.swing.*;
 
 /**
- * A panel on the JFrame for the main.game which can display the current GameBoard
+ * A panel on the JFrame for the main.game which can display the current GameBoard.
+ *  The panel never looks at the live board while the game runs, it draws the BoardFrames the engine hands its
+ *  observers, always the latest one, so it can't catch the board half way through a turn and the engine never waits
+ *  for it to finish drawing. Frames only hold the tiles that changed, so the panel has to be observing the engine
+ *  from its first frame, and keeps its own copy of the sprite on every tile. Everything that stays the same the
+ *  whole game (the grass and the start tiles) is drawn once into a background image, without leaving an image
+ *  for every location cached in the ImageManager. The board as it's shown is kept in a second image, and each
+ *  paint only redraws the tiles that changed in the frames since the last one drawn, plus the tiles the players
+ *  left and entered, so drawing a turn costs as much as what changed in it rather than as much as the whole board,
+ *  even when the paint before fell behind and frames were never drawn
  */
 public class GameBoardDisplayPanel extends JPanel implements Observer {
 
@@ -17,6 +30,12 @@ public class GameBoardDisplayPanel extends JPanel implements Observer {
     private int imageWidth;
     private int imageHeight;
     private int preferredSize;
+    private volatile BoardFrame firstFrame;
+    private volatile BoardFrame latestFrame;
+    private BoardFrame drawnFrame;
+    private String[] foregroundSpriteNames;
+    private Image backgroundImage;
+    private Image boardImage;
 
     public GameBoardDisplayPanel(int preferredSize, GameBoard board, ImageManager imageManager) {
         super();
@@ -37,12 +56,144 @@ public class GameBoardDisplayPanel extends JPanel implements Observer {
         imageManager.rescaleImages(imageWidth, imageHeight);
 
         this.imageManager = imageManager;
+        this.firstFrame = null;
+        this.latestFrame = null;
+        this.drawnFrame = null;
+        this.foregroundSpriteNames = null;
     }
 
     @Override
     public void paint(Graphics g) {
         super.paint(g);
-        boardToRender.paint((Graphics2D) g, imageManager);
+        BoardFrame frame = latestFrame;
+        if(frame == null) {
+            // Nothing to show until the engine publishes its first frame
+            return;
+        }
+
+        if(boardImage == null) {
+            drawWholeBoard(frame);
+        } else if(frame != drawnFrame) {
+            redrawChangedTiles(frame);
+        }
+        drawnFrame = frame;
+
+        // Only the parts of the panel that need repainting are in the clip, so this only copies those
+        g.drawImage(boardImage, 0, 0, null);
+    }
+
+    private void drawWholeBoard(BoardFrame frame) {
+        int boardSize = boardToRender.getSize();
+        backgroundImage = createBoardSizedImage();
+        Graphics2D backgroundBrush = (Graphics2D) backgroundImage.getGraphics();
+        Point redStart = boardToRender.getRedStartTileLocation();
+        Point blueStart = boardToRender.getBlueStartTileLocation();
+        for(int y = 0; y < boardSize; y++) {
+            for(int x = 0; x < boardSize; x++) {
+                if(redStart.x == x && redStart.y == y) {
+                    StartTile.getInstance(true).paint(backgroundBrush, x, y, boardSize, imageManager);
+                } else if(blueStart.x == x && blueStart.y == y) {
+                    StartTile.getInstance(false).paint(backgroundBrush, x, y, boardSize, imageManager);
+                } else {
+                    // Only drawn this once, so nothing is cached for the location, see GrassTile.paintGrass
+                    EmptyTile.getInstance().paintGrass(backgroundBrush, x, y, boardSize, imageManager);
+                }
+            }
+        }
+        backgroundBrush.dispose();
+
+        // The first frame has every tile, the frames after it up to this one only what changed
+        foregroundSpriteNames = new String[boardSize * boardSize];
+        BoardFrame changedFrame = firstFrame;
+        copyChangedSprites(changedFrame);
+        while(changedFrame != frame) {
+            changedFrame = changedFrame.getNextFrame();
+            copyChangedSprites(changedFrame);
+        }
+        firstFrame = null;
+
+        boardImage = createBoardSizedImage();
+        Graphics2D boardBrush = (Graphics2D) boardImage.getGraphics();
+        boardBrush.drawImage(backgroundImage, 0, 0, null);
+        for(int y = 0; y < boardSize; y++) {
+            for(int x = 0; x < boardSize; x++) {
+                drawForeground(boardBrush, x, y);
+            }
+        }
+        drawPlayers(boardBrush, frame);
+        boardBrush.dispose();
+    }
+
+    private Image createBoardSizedImage() {
+        int boardPixels = boardToRender.getSize() * imageWidth;
+        GraphicsConfiguration graphicsConfiguration = getGraphicsConfiguration();
+        if(graphicsConfiguration != null) {
+            // Already in the screen's pixel format, so copying it to the screen needs no conversion
+            return graphicsConfiguration.createCompatibleImage(boardPixels, boardPixels);
+        }
+        return new BufferedImage(boardPixels, boardPixels, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private void redrawChangedTiles(BoardFrame frame) {
+        int boardSize = boardToRender.getSize();
+        Graphics2D boardBrush = (Graphics2D) boardImage.getGraphics();
+
+        // Frames published while the last paint was still waiting never got drawn, so go through every frame since
+        // the one drawn rather than just this one's changed tiles
+        BoardFrame changedFrame = drawnFrame;
+        do {
+            changedFrame = changedFrame.getNextFrame();
+            copyChangedSprites(changedFrame);
+            for(int change = 0; change < changedFrame.getNumberOfChangedTiles(); change++) {
+                int index = changedFrame.getChangedTile(change);
+                redrawTile(boardBrush, index % boardSize, index / boardSize);
+            }
+        } while(changedFrame != frame);
+
+        // Redraw wherever the players were and are now, then the players over the top
+        for(int i = 0; i < drawnFrame.getNumberOfPlayers(); i++) {
+            Point playerLocation = drawnFrame.getPlayerLocation(i);
+            redrawTile(boardBrush, playerLocation.x, playerLocation.y);
+        }
+        for(int i = 0; i < frame.getNumberOfPlayers(); i++) {
+            Point playerLocation = frame.getPlayerLocation(i);
+            redrawTile(boardBrush, playerLocation.x, playerLocation.y);
+        }
+        drawPlayers(boardBrush, frame);
+        boardBrush.dispose();
+    }
+
+    private void copyChangedSprites(BoardFrame frame) {
+        for(int change = 0; change < frame.getNumberOfChangedTiles(); change++) {
+            foregroundSpriteNames[frame.getChangedTile(change)] = frame.getChangedSpriteName(change);
+        }
+    }
+
+    private void redrawTile(Graphics2D boardBrush, int x, int y) {
+        int screenX = x * imageWidth;
+        int screenY = ((boardToRender.getSize() - 1) - y) * imageHeight;
+        boardBrush.drawImage(backgroundImage, screenX, screenY, screenX + imageWidth, screenY + imageHeight,
+                             screenX, screenY, screenX + imageWidth, screenY + imageHeight, null);
+        drawForeground(boardBrush, x, y);
+    }
+
+    private void drawForeground(Graphics2D boardBrush, int x, int y) {
+        int boardSize = boardToRender.getSize();
+        String foregroundSpriteName = foregroundSpriteNames[y * boardSize + x];
+        if(foregroundSpriteName != null) {
+            int screenX = x * imageWidth;
+            int screenY = ((boardSize - 1) - y) * imageHeight;
+            imageManager.drawSprite(boardBrush, foregroundSpriteName, screenX, screenY);
+        }
+    }
+
+    private void drawPlayers(Graphics2D boardBrush, BoardFrame frame) {
+        for(int i = 0; i < frame.getNumberOfPlayers(); i++) {
+            Point location = frame.getPlayerLocation(i);
+            int screenX = location.x * imageWidth;
+            int screenY = ((boardToRender.getSize() - 1) - location.y) * imageHeight;
+            imageManager.drawSprite(boardBrush, frame.getPlayerSpriteName(i), screenX, screenY);
+        }
     }
 
     @Override
@@ -52,6 +203,41 @@ public class GameBoardDisplayPanel extends JPanel implements Observer {
 
     @Override
     public void update(Observable o, Object arg) {
-        repaint();
+        if(!(arg instanceof BoardFrame)) {
+            return;
+        }
+
+        // This runs on the engine thread, so it only hands over the frame and asks for a repaint, never draws
+        BoardFrame frame = (BoardFrame) arg;
+        BoardFrame previousFrame = latestFrame;
+        if(previousFrame == null) {
+            // Kept until the first paint, which needs every tile from it even if later frames came in first
+            firstFrame = frame;
+            latestFrame = frame;
+            repaint();
+            return;
+        }
+        latestFrame = frame;
+
+        // Swing merges these into one repaint, covering only the part of the board that changed
+        int boardSize = boardToRender.getSize();
+        for(int change = 0; change < frame.getNumberOfChangedTiles(); change++) {
+            int index = frame.getChangedTile(change);
+            repaintTile(index % boardSize, index / boardSize);
+        }
+        for(int i = 0; i < previousFrame.getNumberOfPlayers(); i++) {
+            repaintTile(previousFrame.getPlayerLocation(i));
+        }
+        for(int i = 0; i < frame.getNumberOfPlayers(); i++) {
+            repaintTile(frame.getPlayerLocation(i));
+        }
+    }
+
+    private void repaintTile(Point location) {
+        repaintTile(location.x, location.y);
+    }
+
+    private void repaintTile(int x, int y) {
+        repaint(x * imageWidth, ((boardToRender.getSize() - 1) - y) * imageHeight, imageWidth, imageHeight);
     }
 }
@@ -7,11 +7,23 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-
+import java.util.Set;
+
+/**
+ * Loads the game's images and keeps copies of them scaled to the size of a tile. Scaling happens as soon as the size
+ *  is known, into images in the screen's own pixel format, so nothing is scaled or converted while drawing. The
+ *  images loaded from files (the bots, trees, seed and house) are also packed into one sprite atlas image, and
+ *  drawSprite draws them by copying their part of the atlas
+ */
 public class ImageManager {
     private Map<String, Image> rawImages;
     private Map<String, Image> scaledImages;
+    private Set<String> spriteNames;
+    private Map<String, Point> spriteLocations;
+    private Image spriteAtlas;
+    private GraphicsConfiguration graphicsConfiguration;
     private int imagesWidth;
     private int imagesHeight;
 
@@ -28,6 +40,13 @@ public class ImageManager {
 
         rawImages = new HashMap<>();
         scaledImages = new HashMap<>();
+        spriteNames = new HashSet<>();
+        spriteLocations = new HashMap<>();
+        spriteAtlas = null;
+        if(!GraphicsEnvironment.isHeadless()) {
+            graphicsConfiguration = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                                                       .getDefaultConfiguration();
+        }
 
         for(File imageFileToLoad : imageDirectory.listFiles(new ImageFileFilter())) {
             byte[] imageFileContents = Files.readAllBytes(imageFileToLoad.toPath());
@@ -37,11 +56,12 @@ public class ImageManager {
             String imageFileName = imageFileToLoad.getName();
             String imageName = imageFileName.substring(0, imageFileName.indexOf('.'));
             rawImages.put(imageName, loadedImage.getImage());
+            spriteNames.add(imageName);
         }
 
         // Can't know what image scale is needed to start with
         this.imagesWidth = 0;
-        this.imagesWidth = 0;
+        this.imagesHeight = 0;
     }
 
     /**
@@ -86,11 +106,77 @@ public class ImageManager {
 
         this.imagesWidth = newWidth;
         this.imagesHeight = newHeight;
+        buildSpriteAtlas();
     }
 
     private Image rescaleImage(Image imageToRescale, int newWidth, int newHeight) {
-        ImageIcon rescaledImage = new ImageIcon(imageToRescale.getScaledInstance(newWidth, newHeight, Image.SCALE_DEFAULT));
-        return rescaledImage.getImage();
+        int width = imageToRescale.getWidth(null);
+        int height = imageToRescale.getHeight(null);
+        Image rescaledImage = imageToRescale;
+
+        // Halving at a time until close to the new size keeps bilinear filtering from skipping over whole pixels
+        // when shrinking a large image down to a small tile
+        while(width / 2 >= newWidth && height / 2 >= newHeight) {
+            width /= 2;
+            height /= 2;
+            rescaledImage = drawScaled(rescaledImage, width, height);
+        }
+        return drawScaled(rescaledImage, newWidth, newHeight);
+    }
+
+    private Image drawScaled(Image imageToScale, int width, int height) {
+        Image scaledImage = createTranslucentImage(width, height);
+        Graphics2D brush = (Graphics2D) scaledImage.getGraphics();
+        brush.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        brush.drawImage(imageToScale, 0, 0, width, height, null);
+        brush.dispose();
+        return scaledImage;
+    }
+
+    private Image createTranslucentImage(int width, int height) {
+        if(graphicsConfiguration != null) {
+            return graphicsConfiguration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    private void buildSpriteAtlas() {
+        // Lay the sprites out in a square-ish grid of tile sized cells
+        int columns = (int) Math.ceil(Math.sqrt(spriteNames.size()));
+        int rows = (spriteNames.size() + columns - 1) / columns;
+        spriteAtlas = createTranslucentImage(Math.max(columns, 1) * imagesWidth, Math.max(rows, 1) * imagesHeight);
+        spriteLocations.clear();
+
+        Graphics2D atlasBrush = (Graphics2D) spriteAtlas.getGraphics();
+        int cell = 0;
+        for(String spriteName : spriteNames) {
+            Point atlasLocation = new Point((cell % columns) * imagesWidth, (cell / columns) * imagesHeight);
+            atlasBrush.drawImage(scaledImages.get(spriteName), atlasLocation.x, atlasLocation.y, null);
+            spriteLocations.put(spriteName, atlasLocation);
+            cell++;
+        }
+        atlasBrush.dispose();
+    }
+
+    /**
+     * Draws one of the scaled images loaded from the image directory by copying it out of the sprite atlas, which
+     *  keeps every sprite drawn in a frame coming from the same image. Images added with addImageFromIcon aren't in
+     *  the atlas and are drawn from their own scaled image
+     *
+     * @param brush The Graphics object to draw on
+     * @param spriteName The name of the image to draw
+     * @param x The x coordinate on the screen of the top left of the image
+     * @param y The y coordinate on the screen of the top left of the image
+     */
+    public void drawSprite(Graphics2D brush, String spriteName, int x, int y) {
+        Point atlasLocation = spriteLocations.get(spriteName);
+        if(atlasLocation == null) {
+            brush.drawImage(scaledImages.get(spriteName), x, y, null);
+            return;
+        }
+
+        brush.drawImage(spriteAtlas, x, y, x + imagesWidth, y + imagesHeight, atlasLocation.x, atlasLocation.y,
+                        atlasLocation.x + imagesWidth, atlasLocation.y + imagesHeight, null);
     }
 
     /**
@@ -122,6 +208,9 @@ public class ImageManager {
     public void addImageFromIcon(String imageName, ImageIcon imageToAdd) {
         Image rawImageToAdd = imageToAdd.getImage();
         this.rawImages.put(imageName, rawImageToAdd);
+        // An image added under a sprite's name replaces the sprite, which then isn't drawn from the atlas anymore
+        this.spriteNames.remove(imageName);
+        this.spriteLocations.remove(imageName);
 
         boolean widthMatches = (imageToAdd.getIconWidth() == this.imagesWidth);
         boolean heightMatches = (imageToAdd.getIconHeight() == this.imagesHeight);
@@ -1,5 +1,6 @@
 package wood.graphics;
 
+import wood.game.BoardFrame;
 import wood.game.WoodPlayer;
 
 import javax.swing.*;
@@ -16,6 +17,7 @@ public class PlayerScoreDisplayPanel extends JPanel implements Observer {
     private String redPlayerName;
     private String bluePlayerName;
     private int preferredWidth;
+    private volatile BoardFrame latestFrame;
 
     public PlayerScoreDisplayPanel(int preferredWidth, int boardSize, WoodPlayer redPlayer, WoodPlayer bluePlayer) {
         super();
@@ -31,6 +33,7 @@ public class PlayerScoreDisplayPanel extends JPanel implements Observer {
         if(numExtraPixels != 0) {
             this.preferredWidth += boardSize - numExtraPixels;
         }
+        this.latestFrame = null;
     }
 
     @Override
@@ -50,8 +53,10 @@ public class PlayerScoreDisplayPanel extends JPanel implements Observer {
     }
 
     private void drawPlayerScores(Graphics2D brush, Color redFontColor, Color blueFontColor) {
-        String redPlayerScore = String.valueOf(redPlayer.getScore());
-        String bluePlayerScore = String.valueOf(bluePlayer.getScore());
+        // Show the scores from the same frame the board is showing, falling back to the players before the first one
+        BoardFrame frame = latestFrame;
+        String redPlayerScore = String.valueOf((frame == null) ? redPlayer.getScore() : frame.getRedScore());
+        String bluePlayerScore = String.valueOf((frame == null) ? bluePlayer.getScore() : frame.getBlueScore());
 
         brush.setFont(new Font("TimesRoman", Font.PLAIN, 32));
         FontMetrics fontMetrics = brush.getFontMetrics();
@@ -98,6 +103,9 @@ public class PlayerScoreDisplayPanel extends JPanel implements Observer {
 
     @Override
     public void update(Observable o, Object arg) {
+        if(arg instanceof BoardFrame) {
+            latestFrame = (BoardFrame) arg;
+        }
         repaint();
     }
 }
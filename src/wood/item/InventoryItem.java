@@ -1,7 +1,10 @@
 package wood.item;
 
 public abstract class InventoryItem {
-    private int value;
+    // Items never change once made, which lets the same item be handed out for every pickup of the same value
+    protected static final int CACHED_VALUES = 2048;
+
+    private final int value;
 
     public InventoryItem(int value) {
         this.value = value;
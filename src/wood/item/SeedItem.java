@@ -1,11 +1,30 @@
 package wood.item;
 
 public class SeedItem extends InventoryItem {
+    private static final SeedItem[] cachedItems = new SeedItem[CACHED_VALUES];
+    static {
+        for(int value = 0; value < CACHED_VALUES; value++) {
+            cachedItems[value] = new SeedItem(value);
+        }
+    }
 
     public SeedItem(int value) {
         super(value);
     }
 
+    /**
+     * Gets a seed item of the given value, reusing a shared instance for common values instead of making a new one
+     *
+     * @param value The value of the item
+     * @return A SeedItem with that value
+     */
+    public static SeedItem valueOf(int value) {
+        if(value >= 0 && value < CACHED_VALUES) {
+            return cachedItems[value];
+        }
+        return new SeedItem(value);
+    }
+
     @Override
     public ItemType getType() {
         return ItemType.SEED;
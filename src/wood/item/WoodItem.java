@@ -1,11 +1,30 @@
 package wood.item;
 
 public class WoodItem extends InventoryItem {
+    private static final WoodItem[] cachedItems = new WoodItem[CACHED_VALUES];
+    static {
+        for(int value = 0; value < CACHED_VALUES; value++) {
+            cachedItems[value] = new WoodItem(value);
+        }
+    }
 
     public WoodItem(int value) {
         super(value);
     }
 
+    /**
+     * Gets a wood item of the given value, reusing a shared instance for common values instead of making a new one
+     *
+     * @param value The value of the item
+     * @return A WoodItem with that value
+     */
+    public static WoodItem valueOf(int value) {
+        if(value >= 0 && value < CACHED_VALUES) {
+            return cachedItems[value];
+        }
+        return new WoodItem(value);
+    }
+
     @Override
     public ItemType getType() {
         return ItemType.WOOD;
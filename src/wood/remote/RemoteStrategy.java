@@ -0,0 +1,260 @@
+package wood.remote;
+
+import wood.game.TurnAction;
+import wood.item.InventoryItem;
+import wood.strategy.PlayerBoardView;
+import wood.strategy.WoodPlayerStrategy;
+import wood.tiles.TileType;
+
+import java.awt.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays a strategy that runs in its own JVM, so a strategy that crashes, leaks or calls System.exit can't take the
+ *  engine down with it. The child JVM runs StrategyHost and the two sides talk over its stdin and stdout using
+ *  StrategyProtocol. Each turn only the tiles that changed since the last turn are sent, found from the record the
+ *  engine's views keep of what changed, see PlayerBoardView.getTilesChangedSince, and the reply is a single byte,
+ *  so a turn is one small write and one small read and costs as much as what changed rather than the whole board
+ *
+ * The remote strategy gets a Random seeded from the engine's Random rather than the engine's Random itself, so it
+ *  plays the same way every time for the same world seed but won't make the same choices it would in-process.
+ *  An exception thrown by the remote strategy comes back as a RuntimeException from the call that noticed it, which
+ *  is the next getTurnAction or getName for the calls that don't wait for a reply. Remote strategies can't look
+ *  ahead with simulations: the view StrategyHost rebuilds in the child JVM has no game behind it, so
+ *  PlayerBoardView.startSimulation always returns null for them
+ */
+public class RemoteStrategy implements WoodPlayerStrategy, AutoCloseable {
+    private static final TurnAction[] allTurnActions = TurnAction.values();
+    private static final long SHUTDOWN_WAIT_MILLIS = 1000;
+
+    private String strategyClassName;
+    private Process process;
+    private DataInputStream input;
+    private DataOutputStream output;
+    private String name;
+    private int boardSize;
+    private byte[] lastSentTileTypes;
+    private int[] changedTiles;
+    private PlayerBoardView lastSentView;
+    private long lastTurnNanos;
+
+    /**
+     * Starts a child JVM with the same classpath as this one that runs the strategy
+     *
+     * @param strategyClassName The fully qualified name of a WoodPlayerStrategy with a no-argument constructor
+     */
+    public RemoteStrategy(String strategyClassName) {
+        this(strategyClassName, new ArrayList<>());
+    }
+
+    /**
+     * Starts a child JVM with the same classpath as this one that runs the strategy
+     *
+     * @param strategyClassName The fully qualified name of a WoodPlayerStrategy with a no-argument constructor
+     * @param jvmOptions Extra options for the child JVM, like a maximum heap size
+     */
+    public RemoteStrategy(String strategyClassName, List<String> jvmOptions) {
+        this.strategyClassName = strategyClassName;
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StrategyHost.class.getName());
+        command.add(strategyClassName);
+
+        try {
+            this.process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        } catch(IOException e) {
+            throw new UncheckedIOException("Couldn't start a JVM for " + strategyClassName, e);
+        }
+        this.input = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        this.output = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        this.name = null;
+        this.boardSize = 0;
+        this.lastSentTileTypes = new byte[0];
+        this.changedTiles = new int[0];
+        this.lastSentView = null;
+        this.lastTurnNanos = 0;
+    }
+
+    @Override
+    public void initialize(int boardSize, int maxInventorySize, int winningScore, Point startTileLocation,
+                           boolean isRedPlayer, Random random) {
+        this.boardSize = boardSize;
+        this.lastSentTileTypes = new byte[boardSize * boardSize];
+        Arrays.fill(lastSentTileTypes, (byte) TileType.EMPTY.ordinal());
+        this.changedTiles = new int[boardSize * boardSize];
+        this.lastSentView = null;
+
+        try {
+            output.writeByte(StrategyProtocol.INITIALIZE);
+            output.writeInt(boardSize);
+            output.writeInt(maxInventorySize);
+            output.writeInt(winningScore);
+            output.writeInt(startTileLocation.x);
+            output.writeInt(startTileLocation.y);
+            output.writeBoolean(isRedPlayer);
+            output.writeLong(random.nextLong());
+        } catch(IOException e) {
+            throw lostConnection(e);
+        }
+    }
+
+    @Override
+    public TurnAction getTurnAction(PlayerBoardView boardView, boolean isRedTurn) {
+        long turnStart = System.nanoTime();
+
+        int numberOfChangedTiles = 0;
+        int[] tilesToCheck = (lastSentView == null) ? null : boardView.getTilesChangedSince(lastSentView);
+        if(tilesToCheck == null) {
+            // The first turn of a game, or a view that can't say what changed, so look at every tile
+            for(int index = 0; index < boardSize * boardSize; index++) {
+                numberOfChangedTiles = addIfChanged(boardView, index, numberOfChangedTiles);
+            }
+        } else {
+            // A tile listed twice matches what was sent by the second time, so it's only sent once
+            for(int index : tilesToCheck) {
+                numberOfChangedTiles = addIfChanged(boardView, index, numberOfChangedTiles);
+            }
+        }
+        lastSentView = boardView;
+
+        Point yourLocation = boardView.getYourLocation();
+        // Only send what the view would show, the remote side gets no more information than an in-process strategy
+        Point otherPlayerLocation = boardView.getOtherPlayerLocation();
+
+        TurnAction action;
+        try {
+            output.writeByte(StrategyProtocol.TURN);
+            output.writeBoolean(isRedTurn);
+            output.writeInt(yourLocation.x);
+            output.writeInt(yourLocation.y);
+            output.writeBoolean(otherPlayerLocation != null);
+            output.writeInt(otherPlayerLocation == null ? 0 : otherPlayerLocation.x);
+            output.writeInt(otherPlayerLocation == null ? 0 : otherPlayerLocation.y);
+            output.writeInt(boardView.getOtherPlayerScore());
+            output.writeInt(boardView.getCurrentTileValue());
+            output.writeInt(numberOfChangedTiles);
+            for(int i = 0; i < numberOfChangedTiles; i++) {
+                output.writeInt(changedTiles[i]);
+                output.writeByte(lastSentTileTypes[changedTiles[i]]);
+            }
+            output.flush();
+
+            readStatus();
+            byte actionOrdinal = input.readByte();
+            action = (actionOrdinal == StrategyProtocol.NO_ACTION) ? null : allTurnActions[actionOrdinal];
+        } catch(IOException e) {
+            throw lostConnection(e);
+        }
+
+        lastTurnNanos = System.nanoTime() - turnStart;
+        return action;
+    }
+
+    private int addIfChanged(PlayerBoardView boardView, int index, int numberOfChangedTiles) {
+        byte type = (byte) boardView.getTileTypeAtLocation(index % boardSize, index / boardSize).ordinal();
+        if(type != lastSentTileTypes[index]) {
+            lastSentTileTypes[index] = type;
+            changedTiles[numberOfChangedTiles++] = index;
+        }
+        return numberOfChangedTiles;
+    }
+
+    @Override
+    public void receiveItem(InventoryItem itemReceived) {
+        try {
+            output.writeByte(StrategyProtocol.RECEIVE_ITEM);
+            output.writeByte(itemReceived.getType().ordinal());
+            output.writeInt(itemReceived.getValue());
+        } catch(IOException e) {
+            throw lostConnection(e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        // Names never change, so only the first call has to ask
+        if(name == null) {
+            try {
+                output.writeByte(StrategyProtocol.NAME);
+                output.flush();
+                readStatus();
+                name = input.readUTF();
+            } catch(IOException e) {
+                throw lostConnection(e);
+            }
+        }
+        return name;
+    }
+
+    @Override
+    public void endRound(int pointsScored, int opponentPointsScored) {
+        // The last view would otherwise keep the finished game's board alive until the next game starts
+        lastSentView = null;
+        try {
+            output.writeByte(StrategyProtocol.END_ROUND);
+            output.writeInt(pointsScored);
+            output.writeInt(opponentPointsScored);
+            // Nothing else may be sent after the last round, so make sure this one arrives
+            output.flush();
+        } catch(IOException e) {
+            throw lostConnection(e);
+        }
+    }
+
+    /**
+     * @return How long the last getTurnAction call took from the engine's side in nanoseconds, including sending
+     *          the turn, the remote strategy's thinking time and reading the reply
+     */
+    public long getLastTurnNanos() {
+        return lastTurnNanos;
+    }
+
+    /**
+     * Asks the child JVM to exit, and kills it if it doesn't within a second
+     */
+    @Override
+    public void close() {
+        try {
+            output.writeByte(StrategyProtocol.SHUTDOWN);
+            output.flush();
+            output.close();
+        } catch(IOException e) {
+            // Already gone, which is what we wanted anyway
+        }
+
+        try {
+            if(!process.waitFor(SHUTDOWN_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch(InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void readStatus() throws IOException {
+        byte status = input.readByte();
+        if(status == StrategyProtocol.STATUS_EXCEPTION) {
+            throw new RuntimeException(strategyClassName + " threw " + input.readUTF());
+        }
+    }
+
+    private RuntimeException lostConnection(IOException cause) {
+        return new UncheckedIOException("Lost the connection to " + strategyClassName, cause);
+    }
+}
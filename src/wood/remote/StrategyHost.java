@@ -0,0 +1,214 @@
+package wood.remote;
+
+import wood.game.TurnAction;
+import wood.item.InventoryItem;
+import wood.item.ItemType;
+import wood.item.SeedItem;
+import wood.item.WoodItem;
+import wood.strategy.PlayerBoardView;
+import wood.strategy.TileTypeSource;
+import wood.strategy.WoodPlayerStrategy;
+import wood.tiles.TileType;
+
+import java.awt.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The child JVM side of RemoteStrategy. Creates the strategy named on the command line, then answers the engine's
+ *  messages on stdin and stdout until told to shut down or stdin closes. The host keeps its own copy of the board's
+ *  tile types, updated from the changed tiles sent every turn, and hands the strategy views of that copy
+ *
+ * Usage: StrategyHost fully.qualified.StrategyClassName
+ */
+public class StrategyHost {
+    private static final TileType[] allTileTypes = TileType.values();
+    private static final ItemType[] allItemTypes = ItemType.values();
+
+    private WoodPlayerStrategy strategy;
+    private DataInputStream input;
+    private DataOutputStream output;
+    private int boardSize;
+    private byte[] tileTypes;
+    private String deferredException;
+
+    private StrategyHost(WoodPlayerStrategy strategy, DataInputStream input, DataOutputStream output) {
+        this.strategy = strategy;
+        this.input = input;
+        this.output = output;
+        this.boardSize = 0;
+        this.tileTypes = new byte[0];
+        this.deferredException = null;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if(args.length != 1) {
+            System.err.println("Usage: StrategyHost <strategy class name>");
+            System.exit(1);
+        }
+
+        // stdout belongs to the protocol, anything the strategy prints goes to stderr instead
+        PrintStream protocolOut = System.out;
+        System.setOut(System.err);
+
+        WoodPlayerStrategy strategy = (WoodPlayerStrategy) Class.forName(args[0]).getDeclaredConstructor().newInstance();
+        DataInputStream input = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(protocolOut));
+        new StrategyHost(strategy, input, output).run();
+    }
+
+    private void run() throws IOException {
+        while(true) {
+            byte message;
+            try {
+                message = input.readByte();
+            } catch(EOFException e) {
+                // The engine went away without saying goodbye
+                return;
+            }
+
+            switch(message) {
+                case StrategyProtocol.INITIALIZE: handleInitialize();
+                                                  break;
+                case StrategyProtocol.TURN: handleTurn();
+                                            break;
+                case StrategyProtocol.RECEIVE_ITEM: handleReceiveItem();
+                                                    break;
+                case StrategyProtocol.END_ROUND: handleEndRound();
+                                                 break;
+                case StrategyProtocol.NAME: handleName();
+                                            break;
+                case StrategyProtocol.SHUTDOWN: return;
+                default: throw new IOException("Unknown message " + message);
+            }
+        }
+    }
+
+    private void handleInitialize() throws IOException {
+        boardSize = input.readInt();
+        int maxInventorySize = input.readInt();
+        int winningScore = input.readInt();
+        Point startTileLocation = new Point(input.readInt(), input.readInt());
+        boolean isRedPlayer = input.readBoolean();
+        Random random = new Random(input.readLong());
+
+        tileTypes = new byte[boardSize * boardSize];
+        Arrays.fill(tileTypes, (byte) TileType.EMPTY.ordinal());
+
+        try {
+            strategy.initialize(boardSize, maxInventorySize, winningScore, startTileLocation, isRedPlayer, random);
+        } catch(Exception e) {
+            deferException(e);
+        }
+    }
+
+    private void handleTurn() throws IOException {
+        boolean isRedTurn = input.readBoolean();
+        Point yourLocation = new Point(input.readInt(), input.readInt());
+        boolean otherPlayerVisible = input.readBoolean();
+        Point otherPlayerLocation = new Point(input.readInt(), input.readInt());
+        int otherPlayerScore = input.readInt();
+        int currentTileValue = input.readInt();
+        int numberOfChangedTiles = input.readInt();
+        for(int i = 0; i < numberOfChangedTiles; i++) {
+            int index = input.readInt();
+            tileTypes[index] = input.readByte();
+        }
+
+        if(deferredException != null) {
+            writeException();
+            return;
+        }
+
+        TurnAction action;
+        try {
+            PlayerBoardView boardView = new PlayerBoardView(new MirroredTileTypes(), yourLocation,
+                                                            otherPlayerVisible ? otherPlayerLocation : null,
+                                                            otherPlayerScore, currentTileValue);
+            action = strategy.getTurnAction(boardView, isRedTurn);
+        } catch(Exception e) {
+            deferException(e);
+            writeException();
+            return;
+        }
+
+        output.writeByte(StrategyProtocol.STATUS_OK);
+        output.writeByte(action == null ? StrategyProtocol.NO_ACTION : (byte) action.ordinal());
+        output.flush();
+    }
+
+    private void handleReceiveItem() throws IOException {
+        ItemType itemType = allItemTypes[input.readByte()];
+        int value = input.readInt();
+        InventoryItem item = (itemType == ItemType.SEED) ? SeedItem.valueOf(value) : WoodItem.valueOf(value);
+
+        try {
+            strategy.receiveItem(item);
+        } catch(Exception e) {
+            deferException(e);
+        }
+    }
+
+    private void handleEndRound() throws IOException {
+        int pointsScored = input.readInt();
+        int opponentPointsScored = input.readInt();
+
+        try {
+            strategy.endRound(pointsScored, opponentPointsScored);
+        } catch(Exception e) {
+            deferException(e);
+        }
+    }
+
+    private void handleName() throws IOException {
+        String name;
+        try {
+            name = strategy.getName();
+        } catch(Exception e) {
+            deferException(e);
+            writeException();
+            return;
+        }
+
+        output.writeByte(StrategyProtocol.STATUS_OK);
+        output.writeUTF(name);
+        output.flush();
+    }
+
+    private void deferException(Exception e) {
+        // Messages without a reply can't report an exception, so the next reply does
+        e.printStackTrace();
+        if(deferredException == null) {
+            deferredException = e.toString();
+        }
+    }
+
+    private void writeException() throws IOException {
+        output.writeByte(StrategyProtocol.STATUS_EXCEPTION);
+        output.writeUTF(deferredException);
+        output.flush();
+        deferredException = null;
+    }
+
+    /**
+     * The host's copy of the board's tile types, as a TileTypeSource so PlayerBoardView can read from it
+     */
+    private class MirroredTileTypes implements TileTypeSource {
+        @Override
+        public int getSize() {
+            return boardSize;
+        }
+
+        @Override
+        public TileType getTileType(int x, int y) {
+            return allTileTypes[tileTypes[y * boardSize + x]];
+        }
+    }
+}
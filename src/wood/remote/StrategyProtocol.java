@@ -0,0 +1,36 @@
+package wood.remote;
+
+/**
+ * The binary protocol RemoteStrategy and StrategyHost speak over the child JVM's stdin and stdout. Every message
+ *  from the engine starts with one of the message bytes below, everything is big-endian as written by
+ *  DataOutputStream. Only TURN and NAME get a reply, which starts with a status byte, so the other messages are
+ *  written without waiting and reach the host along with the next message that does need a reply.
+ *
+ * INITIALIZE: boardSize int, maxInventorySize int, winningScore int, startX int, startY int, isRedPlayer boolean,
+ *  randomSeed long
+ * TURN: isRedTurn boolean, yourX int, yourY int, otherPlayerVisible boolean, otherX int, otherY int,
+ *  otherPlayerScore int, currentTileValue int, numberOfChangedTiles int, then for each changed tile its row-major
+ *  index int and TileType ordinal byte. Replied to with the TurnAction ordinal as a byte, NO_ACTION for null.
+ *  The tiles are deltas from the last TURN since INITIALIZE, which starts from a board of only empty tiles
+ * RECEIVE_ITEM: ItemType ordinal byte, value int
+ * END_ROUND: pointsScored int, opponentPointsScored int
+ * NAME: Replied to with the strategy's name as a UTF string
+ * SHUTDOWN: The host exits
+ */
+final class StrategyProtocol {
+    static final byte INITIALIZE = 1;
+    static final byte TURN = 2;
+    static final byte RECEIVE_ITEM = 3;
+    static final byte END_ROUND = 4;
+    static final byte NAME = 5;
+    static final byte SHUTDOWN = 6;
+
+    static final byte STATUS_OK = 0;
+    // Followed by the exception's description as a UTF string in place of the reply
+    static final byte STATUS_EXCEPTION = 1;
+
+    static final byte NO_ACTION = -1;
+
+    private StrategyProtocol() {
+    }
+}
@@ -0,0 +1,28 @@
+package wood.replay;
+
+/**
+ * A Replay read back from a ReplayArchive, along with the names of the strategies that played it
+ */
+public class ArchivedReplay {
+    private String redStrategyName;
+    private String blueStrategyName;
+    private Replay replay;
+
+    public ArchivedReplay(String redStrategyName, String blueStrategyName, Replay replay) {
+        this.redStrategyName = redStrategyName;
+        this.blueStrategyName = blueStrategyName;
+        this.replay = replay;
+    }
+
+    public String getRedStrategyName() {
+        return redStrategyName;
+    }
+
+    public String getBlueStrategyName() {
+        return blueStrategyName;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+}
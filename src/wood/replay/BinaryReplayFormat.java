@@ -0,0 +1,437 @@
+package wood.replay;
+
+import wood.game.TurnAction;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A compact binary encoding of a Replay, around a fifth the size of the text format. The layout is:
+ * [magic: the 4 bytes 'W' 'R' 'P' 0x1A]
+ * [format version: 1 byte]
+ * [board size: varint]
+ * [world seed: zigzag varint]
+ * [exception markers: 1 byte, bit 0 set if red threw, bit 1 set if blue threw]
+ * [red action count: varint]
+ * [blue action count: varint]
+ * [actions: 3 bits each, packed from the lowest bit of each byte up, turn by turn with red's action before
+ *  blue's. Once one player runs out of actions the other's remaining actions follow on their own]
+ * [checksum: CRC32 of every byte before it, 4 bytes big-endian]
+ *
+ * Version 3 is version 1 for replays that have keyframes, with them added just before the checksum:
+ * [keyframe interval: varint]
+ * [keyframe count: varint]
+ * [keyframes: for each, its length as a varint followed by the keyframe's bytes]
+ *
+ * Version 4 is version 3 for replays that also record how the game turned out, see ReplayOutcome. The keyframe
+ *  section is always there, with an interval and count of 0 if there are no keyframes, and is followed by:
+ * [final scores: red then blue, zigzag varints]
+ * [final state hash: 8 bytes big-endian]
+ * [turn digest count: varint]
+ * [turn digests: 4 bytes big-endian each]
+ *
+ * Version 2 is written by StreamingReplayRecorder while a game is still being played, so nothing about the end of
+ *  the game can come first. It's made of sections that each end with a CRC32 of just that section, 4 bytes
+ *  big-endian, so everything before a torn or missing section can still be trusted:
+ * [header: magic, format version, board size, world seed, all as in version 1]
+ * [blocks: a varint count of turns followed by that many turns of actions packed as in version 1, with red's
+ *  action and then blue's for every turn, and the last byte padded out]
+ * [trailer: a varint 0 where a block's turn count would be, then the exception markers as in version 1, then a
+ *  byte saying which player has one more action than the other, 0 for neither, 1 for red and 2 for blue,
+ *  followed by that action as a byte if there is one]
+ * A version 2 replay with no trailer is a game that never finished recording, decodePartial reads it up to the
+ *  last whole block
+ *
+ * Varints are 7 bits per byte, lowest bits first, with the top bit set on every byte but the last. An action is
+ *  stored as its TurnAction ordinal, and NO_ACTION_CODE is a turn where the player did nothing
+ */
+public final class BinaryReplayFormat {
+    public static final int VERSION = 1;
+    public static final int STREAMED_VERSION = 2;
+    public static final int KEYFRAMED_VERSION = 3;
+    public static final int OUTCOME_VERSION = 4;
+
+    static final byte[] MAGIC = {'W', 'R', 'P', 0x1A};
+    static final int BITS_PER_ACTION = 3;
+    static final int ACTION_MASK = (1 << BITS_PER_ACTION) - 1;
+    static final int NO_ACTION_CODE = ACTION_MASK;
+    static final int RED_THREW_EXCEPTION = 1;
+    static final int BLUE_THREW_EXCEPTION = 1 << 1;
+    static final int NO_EXTRA_ACTION = 0;
+    static final int EXTRA_RED_ACTION = 1;
+    static final int EXTRA_BLUE_ACTION = 2;
+    static final int CHECKSUM_BYTES = 4;
+    // Magic, version, the longest varints, exception markers and checksum
+    private static final int MAX_HEADER_AND_CHECKSUM_BYTES = MAGIC.length + 1 + 5 + 10 + 1 + 5 + 5 + CHECKSUM_BYTES;
+
+    private static final TurnAction[] allTurnActions = TurnAction.values();
+
+    private BinaryReplayFormat() {
+    }
+
+    /**
+     * @param replay The Replay to encode
+     * @return The replay in the binary format
+     */
+    public static byte[] encode(Replay replay) {
+        List<TurnAction> redActions = replay.getRedPlayerActions();
+        List<TurnAction> blueActions = replay.getBluePlayerActions();
+        List<byte[]> keyframes = replay.getKeyframes();
+        ReplayOutcome outcome = replay.getOutcome();
+        int numberOfActions = redActions.size() + blueActions.size();
+        int extraBytes = 5 + 5;
+        for(int i = 0; i < keyframes.size(); i++) {
+            extraBytes += 5 + keyframes.get(i).length;
+        }
+        if(outcome != null) {
+            extraBytes += 5 + 5 + 8 + 5 + 4 * outcome.getTurnDigests().length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_HEADER_AND_CHECKSUM_BYTES
+                                                + (numberOfActions * BITS_PER_ACTION + 7) / 8 + extraBytes);
+
+        // Replays are written in the oldest version that holds everything they have, so anything that reads
+        // version 1 can still read replays without keyframes or an outcome
+        int version = VERSION;
+        if(outcome != null) {
+            version = OUTCOME_VERSION;
+        } else if(!keyframes.isEmpty()) {
+            version = KEYFRAMED_VERSION;
+        }
+        buffer.put(MAGIC);
+        buffer.put((byte) version);
+        writeVarint(buffer, replay.getBoardSize());
+        writeVarint(buffer, zigzag(replay.getWorldSeed()));
+        int exceptionMarkers = (replay.redThrewException() ? RED_THREW_EXCEPTION : 0)
+                               | (replay.blueThrewException() ? BLUE_THREW_EXCEPTION : 0);
+        buffer.put((byte) exceptionMarkers);
+        writeVarint(buffer, redActions.size());
+        writeVarint(buffer, blueActions.size());
+
+        long pendingBits = 0;
+        int numberOfPendingBits = 0;
+        int numberOfTurns = Math.max(redActions.size(), blueActions.size());
+        for(int turn = 0; turn < numberOfTurns; turn++) {
+            if(turn < redActions.size()) {
+                pendingBits |= (long) actionCode(redActions.get(turn)) << numberOfPendingBits;
+                numberOfPendingBits += BITS_PER_ACTION;
+            }
+            if(turn < blueActions.size()) {
+                pendingBits |= (long) actionCode(blueActions.get(turn)) << numberOfPendingBits;
+                numberOfPendingBits += BITS_PER_ACTION;
+            }
+
+            while(numberOfPendingBits >= 8) {
+                buffer.put((byte) pendingBits);
+                pendingBits >>>= 8;
+                numberOfPendingBits -= 8;
+            }
+        }
+        if(numberOfPendingBits > 0) {
+            buffer.put((byte) pendingBits);
+        }
+
+        if(version >= KEYFRAMED_VERSION) {
+            writeVarint(buffer, replay.getKeyframeInterval());
+            writeVarint(buffer, keyframes.size());
+            for(int i = 0; i < keyframes.size(); i++) {
+                writeVarint(buffer, keyframes.get(i).length);
+                buffer.put(keyframes.get(i));
+            }
+        }
+        if(version >= OUTCOME_VERSION) {
+            writeVarint(buffer, zigzag(outcome.getRedScore()));
+            writeVarint(buffer, zigzag(outcome.getBlueScore()));
+            buffer.putLong(outcome.getFinalStateHash());
+            int[] turnDigests = outcome.getTurnDigests();
+            writeVarint(buffer, turnDigests.length);
+            for(int i = 0; i < turnDigests.length; i++) {
+                buffer.putInt(turnDigests[i]);
+            }
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) checksum.getValue());
+
+        byte[] encoded = new byte[buffer.position()];
+        System.arraycopy(buffer.array(), 0, encoded, 0, encoded.length);
+        return encoded;
+    }
+
+    /**
+     * @param encoded The bytes to check, from their position onwards, which is left unchanged
+     * @return True if the bytes start with the binary format's magic number rather than being a text replay
+     */
+    public static boolean isBinaryReplay(ByteBuffer encoded) {
+        if(encoded.remaining() < MAGIC.length) {
+            return false;
+        }
+
+        for(int i = 0; i < MAGIC.length; i++) {
+            if(encoded.get(encoded.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a replay in one pass over the buffer, starting at its position. The buffer's position is left just
+     *  after the end of the replay
+     *
+     * @param encoded A buffer holding a replay in the binary format
+     * @return The decoded Replay
+     * @throws IllegalArgumentException If the bytes aren't a binary replay, are from a newer version of the format,
+     *                                  are cut short or don't match their checksum
+     */
+    public static Replay decode(ByteBuffer encoded) {
+        return decode(encoded, false);
+    }
+
+    /**
+     * Decodes as much of a replay as can be trusted, for replays whose recording was cut off, like one from a
+     *  worker that was killed part way through a game. For a version 2 replay that's every turn up to the first
+     *  block that's missing, torn or fails its checksum. A replay without its trailer never says whether a player
+     *  threw an exception, so the decoded Replay says neither did. Version 1 and 3 replays are all or nothing, so they
+     *  decode the same way as with decode
+     *
+     * @param encoded A buffer holding a replay in the binary format, or the start of one
+     * @return The decoded Replay, with as many turns as could be read
+     * @throws IllegalArgumentException If the bytes aren't a binary replay, are from a newer version of the format,
+     *                                  or not even the header can be read
+     */
+    public static Replay decodePartial(ByteBuffer encoded) {
+        return decode(encoded, true);
+    }
+
+    private static Replay decode(ByteBuffer encoded, boolean allowPartial) {
+        int start = encoded.position();
+        if(!isBinaryReplay(encoded)) {
+            throw new IllegalArgumentException("Not a binary replay");
+        }
+
+        try {
+            encoded.position(start + MAGIC.length);
+            int version = encoded.get();
+            if(version == STREAMED_VERSION) {
+                return decodeStreamed(encoded, start, allowPartial);
+            }
+            if(version != VERSION && version != KEYFRAMED_VERSION && version != OUTCOME_VERSION) {
+                throw new IllegalArgumentException("Unsupported binary replay version " + version);
+            }
+
+            int boardSize = readBoardSize(encoded);
+            long worldSeed = unzigzag(readVarint(encoded));
+            int exceptionMarkers = encoded.get();
+            int redActionCount = readCount(encoded);
+            int blueActionCount = readCount(encoded);
+            // The counts are checked before anything is sized by them, so a corrupt header can't ask for more
+            // memory than the actions left in the buffer could possibly need
+            if((long) redActionCount + blueActionCount > (long) encoded.remaining() * 8 / BITS_PER_ACTION) {
+                throw new IllegalArgumentException("Binary replay has more actions than it has room for");
+            }
+
+            List<TurnAction> redActions = new ArrayList<>(redActionCount);
+            List<TurnAction> blueActions = new ArrayList<>(blueActionCount);
+            long pendingBits = 0;
+            int numberOfPendingBits = 0;
+            int numberOfTurns = Math.max(redActionCount, blueActionCount);
+            for(int turn = 0; turn < numberOfTurns; turn++) {
+                boolean redActed = turn < redActionCount;
+                boolean blueActed = turn < blueActionCount;
+                int bitsThisTurn = ((redActed ? 1 : 0) + (blueActed ? 1 : 0)) * BITS_PER_ACTION;
+                // A turn is at most 6 bits, so one byte is always enough to top up, and the last byte is only
+                // read if the last turn needs it
+                if(numberOfPendingBits < bitsThisTurn) {
+                    pendingBits |= (long) (encoded.get() & 0xFF) << numberOfPendingBits;
+                    numberOfPendingBits += 8;
+                }
+
+                if(redActed) {
+                    redActions.add(actionFromCode((int) pendingBits & ACTION_MASK));
+                    pendingBits >>>= BITS_PER_ACTION;
+                    numberOfPendingBits -= BITS_PER_ACTION;
+                }
+                if(blueActed) {
+                    blueActions.add(actionFromCode((int) pendingBits & ACTION_MASK));
+                    pendingBits >>>= BITS_PER_ACTION;
+                    numberOfPendingBits -= BITS_PER_ACTION;
+                }
+            }
+
+            int keyframeInterval = 0;
+            List<byte[]> keyframes = new ArrayList<>(0);
+            if(version >= KEYFRAMED_VERSION) {
+                keyframeInterval = readCount(encoded);
+                int keyframeCount = readCount(encoded);
+                if(keyframeInterval < 0 || (keyframeInterval == 0) != (keyframeCount == 0)
+                   || keyframeCount < 0 || keyframeCount > encoded.remaining()) {
+                    throw new IllegalArgumentException("Corrupt keyframe section in binary replay");
+                }
+                for(int i = 0; i < keyframeCount; i++) {
+                    int keyframeLength = readCount(encoded);
+                    if(keyframeLength < 0 || keyframeLength > encoded.remaining()) {
+                        throw new BufferUnderflowException();
+                    }
+                    byte[] keyframe = new byte[keyframeLength];
+                    encoded.get(keyframe);
+                    keyframes.add(keyframe);
+                }
+            }
+
+            ReplayOutcome outcome = null;
+            if(version >= OUTCOME_VERSION) {
+                int redScore = (int) unzigzag(readVarint(encoded));
+                int blueScore = (int) unzigzag(readVarint(encoded));
+                long finalStateHash = encoded.getLong();
+                int digestCount = readCount(encoded);
+                if(digestCount < 0 || digestCount > encoded.remaining() / 4) {
+                    throw new BufferUnderflowException();
+                }
+                int[] turnDigests = new int[digestCount];
+                for(int i = 0; i < digestCount; i++) {
+                    turnDigests[i] = encoded.getInt();
+                }
+                outcome = new ReplayOutcome(redScore, blueScore, finalStateHash, turnDigests);
+            }
+
+            checkChecksum(encoded, start);
+            return new Replay(boardSize, worldSeed, redActions, blueActions,
+                              (exceptionMarkers & RED_THREW_EXCEPTION) != 0,
+                              (exceptionMarkers & BLUE_THREW_EXCEPTION) != 0, keyframeInterval, keyframes, outcome);
+        } catch(BufferUnderflowException e) {
+            throw new IllegalArgumentException("Binary replay ends early, the replay is truncated", e);
+        }
+    }
+
+    private static Replay decodeStreamed(ByteBuffer encoded, int start, boolean allowPartial) {
+        int boardSize = readBoardSize(encoded);
+        long worldSeed = unzigzag(readVarint(encoded));
+        checkChecksum(encoded, start);
+
+        List<TurnAction> redActions = new ArrayList<>();
+        List<TurnAction> blueActions = new ArrayList<>();
+        while(true) {
+            int sectionStart = encoded.position();
+            try {
+                int numberOfTurns = readCount(encoded);
+                if(numberOfTurns == 0) {
+                    int exceptionMarkers = encoded.get();
+                    int extraAction = encoded.get();
+                    if(extraAction == EXTRA_RED_ACTION || extraAction == EXTRA_BLUE_ACTION) {
+                        TurnAction action = actionFromCode(encoded.get());
+                        checkChecksum(encoded, sectionStart);
+                        (extraAction == EXTRA_RED_ACTION ? redActions : blueActions).add(action);
+                    } else {
+                        checkChecksum(encoded, sectionStart);
+                    }
+
+                    return new Replay(boardSize, worldSeed, redActions, blueActions,
+                                      (exceptionMarkers & RED_THREW_EXCEPTION) != 0,
+                                      (exceptionMarkers & BLUE_THREW_EXCEPTION) != 0);
+                }
+
+                // Check the whole block before decoding any of it, so a bad block adds no turns
+                long blockBytes = ((long) numberOfTurns * 2 * BITS_PER_ACTION + 7) / 8;
+                if(blockBytes + CHECKSUM_BYTES > encoded.remaining()) {
+                    throw new BufferUnderflowException();
+                }
+                int blockEnd = encoded.position() + (int) blockBytes;
+                encoded.position(blockEnd);
+                checkChecksum(encoded, sectionStart);
+                encoded.position(blockEnd - (int) blockBytes);
+
+                long pendingBits = 0;
+                int numberOfPendingBits = 0;
+                for(int turn = 0; turn < numberOfTurns; turn++) {
+                    if(numberOfPendingBits < 2 * BITS_PER_ACTION) {
+                        pendingBits |= (long) (encoded.get() & 0xFF) << numberOfPendingBits;
+                        numberOfPendingBits += 8;
+                    }
+                    redActions.add(actionFromCode((int) pendingBits & ACTION_MASK));
+                    blueActions.add(actionFromCode((int) (pendingBits >>> BITS_PER_ACTION) & ACTION_MASK));
+                    pendingBits >>>= 2 * BITS_PER_ACTION;
+                    numberOfPendingBits -= 2 * BITS_PER_ACTION;
+                }
+                encoded.position(blockEnd + CHECKSUM_BYTES);
+            } catch(BufferUnderflowException | IllegalArgumentException e) {
+                if(!allowPartial) {
+                    throw e;
+                }
+
+                // Everything from here on can't be trusted, keep the turns from the sections before it
+                encoded.position(sectionStart);
+                return new Replay(boardSize, worldSeed, redActions, blueActions, false, false);
+            }
+        }
+    }
+
+    /**
+     * Reads the checksum at the buffer's position and checks it against every byte from start up to there
+     */
+    private static void checkChecksum(ByteBuffer encoded, int start) {
+        int end = encoded.position();
+        int storedChecksum = encoded.getInt();
+        CRC32 checksum = new CRC32();
+        checksum.update(encoded.duplicate().position(start).limit(end));
+        if((int) checksum.getValue() != storedChecksum) {
+            throw new IllegalArgumentException("Binary replay checksum doesn't match, the replay is corrupt");
+        }
+    }
+
+    static int actionCode(TurnAction action) {
+        return (action == null) ? NO_ACTION_CODE : action.ordinal();
+    }
+
+    private static TurnAction actionFromCode(int code) {
+        return (code >= allTurnActions.length) ? null : allTurnActions[code];
+    }
+
+    static void writeVarint(ByteBuffer buffer, long value) {
+        while((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readBoardSize(ByteBuffer buffer) {
+        long boardSize = readVarint(buffer);
+        if(boardSize < 1 || boardSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Binary replay has an invalid board size of " + boardSize);
+        }
+        return (int) boardSize;
+    }
+
+    private static int readCount(ByteBuffer buffer) {
+        long count = readVarint(buffer);
+        if(count < 0 || count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Binary replay has an invalid count of " + count);
+        }
+        return (int) count;
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            byte nextByte = buffer.get();
+            value |= (long) (nextByte & 0x7F) << shift;
+            if(nextByte >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Binary replay has a varint longer than 64 bits");
+    }
+
+    static long zigzag(long value) {
+        // Small negative seeds stay short: 0, -1, 1, -2, ... encode as 0, 1, 2, 3, ...
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -3,10 +3,14 @@ package wood.replay;
 import wood.game.TurnAction;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
 
@@ -19,20 +23,57 @@ public class Replay {
     private List<TurnAction> bluePlayerActions;
     private boolean redThrewException;
     private boolean blueThrewException;
+    private int keyframeInterval;
+    private List<byte[]> keyframes;
+    private ReplayOutcome outcome;
 
     public Replay(int boardSize, long worldSeed, List<TurnAction> redPlayerActions, List<TurnAction> bluePlayerActions,
                   boolean redThrewException, boolean blueThrewException) {
+        this(boardSize, worldSeed, redPlayerActions, bluePlayerActions, redThrewException, blueThrewException, 0,
+             Collections.emptyList());
+    }
+
+    /**
+     * Creates a replay that also holds keyframes of the game, see GameEngine.setKeyframeInterval, so it can be
+     *  watched from any turn without playing every turn before it again
+     *
+     * @param keyframeInterval How many turns apart the keyframes are, or 0 if there are none
+     * @param keyframes Keyframes from GameEngine.captureKeyframe, where keyframe i was captured at the start of turn
+     *                  (i + 1) * keyframeInterval
+     */
+    public Replay(int boardSize, long worldSeed, List<TurnAction> redPlayerActions, List<TurnAction> bluePlayerActions,
+                  boolean redThrewException, boolean blueThrewException, int keyframeInterval,
+                  List<byte[]> keyframes) {
+        this(boardSize, worldSeed, redPlayerActions, bluePlayerActions, redThrewException, blueThrewException,
+             keyframeInterval, keyframes, null);
+    }
+
+    /**
+     * Creates a replay that also records how the game turned out, so ReplayVerifier can check that replaying it
+     *  still ends the same way
+     *
+     * @param outcome The final scores and state digests of the game as it was played, or null if not known
+     */
+    public Replay(int boardSize, long worldSeed, List<TurnAction> redPlayerActions, List<TurnAction> bluePlayerActions,
+                  boolean redThrewException, boolean blueThrewException, int keyframeInterval,
+                  List<byte[]> keyframes, ReplayOutcome outcome) {
+        if(keyframeInterval < 0 || (keyframeInterval == 0 && !keyframes.isEmpty())) {
+            throw new IllegalArgumentException("Keyframes need a positive interval, was " + keyframeInterval);
+        }
         this.boardSize = boardSize;
         this.worldSeed = worldSeed;
         this.redPlayerActions = redPlayerActions;
         this.bluePlayerActions = bluePlayerActions;
         this.redThrewException = redThrewException;
         this.blueThrewException = blueThrewException;
+        this.keyframeInterval = keyframeInterval;
+        this.keyframes = keyframes;
+        this.outcome = outcome;
     }
 
     /**
-     * Decodes the file containing replay information into a Java Replay object
-     * The file format is:
+     * Decodes the file containing replay information into a Java Replay object. Files in BinaryReplayFormat are
+     *  recognized by their magic number, anything else is read as the original text format, which is:
      * [board size]\r\n
      * [world seed]\r\n
      * [red player actions]\r\n
@@ -41,11 +82,17 @@ public class Replay {
      *
      * @param replayFilePathToRead The file path to the file containing replay information
      * @return A Replay object consisting of the information read from the file
-     * @throws FileNotFoundException If Java cannot find the file at the specified path
-     * @throws NumberFormatException If there is an issue parsing any numbers in the replay file
+     * @throws IOException If Java cannot find or read the file at the specified path
+     * @throws IllegalArgumentException If there is an issue parsing any numbers in a text replay file, or a binary
+     *                                  replay file is truncated or corrupt
      */
-    public static Replay decodeReplayFile(String replayFilePathToRead) throws FileNotFoundException {
-        Scanner replayFileReader = new Scanner(new File(replayFilePathToRead));
+    public static Replay decodeReplayFile(String replayFilePathToRead) throws IOException {
+        ByteBuffer replayFileContents = ByteBuffer.wrap(Files.readAllBytes(Paths.get(replayFilePathToRead)));
+        if(BinaryReplayFormat.isBinaryReplay(replayFileContents)) {
+            return BinaryReplayFormat.decode(replayFileContents);
+        }
+
+        Scanner replayFileReader = new Scanner(new String(replayFileContents.array(), StandardCharsets.UTF_8));
         int boardSize = Integer.parseInt(replayFileReader.nextLine().trim());
         long worldSeed = Long.parseLong(replayFileReader.nextLine().trim());
 
@@ -76,6 +123,18 @@ public class Replay {
         replayWriter.close();
     }
 
+    /**
+     * Writes a replay file in BinaryReplayFormat from a given Replay object
+     *
+     * @param replay The Replay object to encode into a replay file
+     * @param replayFilePathToWrite The file path of the replay file that will be written, if a file exists at this
+     *                               path, it will be overwritten
+     * @throws IOException If there is an issue writing to the file at the specified path
+     */
+    public static void encodeBinaryReplayFile(Replay replay, String replayFilePathToWrite) throws IOException {
+        Files.write(Paths.get(replayFilePathToWrite), BinaryReplayFormat.encode(replay));
+    }
+
     @Override
     public String toString() {
         String encodedRedActions = encodeActionList(redPlayerActions, redThrewException);
@@ -111,7 +170,7 @@ public class Replay {
     }
 
     private static List<TurnAction> decodeActionList(String[] encodedList) {
-        List<TurnAction> turnActions = new LinkedList<>();
+        List<TurnAction> turnActions = new ArrayList<>(encodedList.length);
 
         for(String encodedAction : encodedList) {
             int actionIndex = Integer.parseInt(encodedAction);
@@ -155,4 +214,26 @@ public class Replay {
     public boolean blueThrewException() {
         return blueThrewException;
     }
+
+    /**
+     * @return How many turns apart the keyframes are, or 0 if the replay has none
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * @return The replay's keyframes, where keyframe i is the game at the start of turn (i + 1) * getKeyframeInterval
+     */
+    public List<byte[]> getKeyframes() {
+        return keyframes;
+    }
+
+    /**
+     * @return How the game turned out when it was played, or null for replays recorded without one, like text
+     *          replays, replays from StreamingReplayRecorder and games played without GameEngine.setOutcomeRecorded
+     */
+    public ReplayOutcome getOutcome() {
+        return outcome;
+    }
 }
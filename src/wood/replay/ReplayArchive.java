@@ -0,0 +1,447 @@
+package wood.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keeps many replays in a directory of large append-only segment files instead of one file per replay, with an
+ *  index to find them by world seed and the pair of strategies that played. Replays are read through memory-mapped
+ *  segments, so looking one up or reading them all never opens or parses a file per replay
+ *
+ * The directory holds:
+ * replays.idx: [magic 'W' 'R' 'P' 'I'][version: int] then one INDEX_ENTRY_BYTES entry per replay, in the order they
+ *  were added: [world seed: long][strategy pair key: long][segment number: int][offset in segment: int]
+ *  [record length: int]
+ * replays-NNNNN.seg: [magic 'W' 'R' 'P' 'S'][version: int] then one record per replay: [length of the rest of the
+ *  record: int][world seed: long][red strategy name: short length then UTF-8][blue strategy name: the same]
+ *  [the replay in BinaryReplayFormat]
+ *
+ * A segment is written before its index entry, so if a write is cut off the index can only be behind the
+ *  segments. Opening an archive catches the index up from the end of the last segment, and drops a torn record or
+ *  index entry left by the cut off write. All methods are synchronized, so tournament workers can share an archive
+ */
+public class ReplayArchive implements AutoCloseable {
+    // Offsets are ints, and a few hundred MB per segment keeps the number of mappings small
+    public static final int DEFAULT_MAX_SEGMENT_BYTES = 256 * 1024 * 1024;
+
+    private static final int INDEX_MAGIC = 0x57525049;
+    private static final int SEGMENT_MAGIC = 0x57525053;
+    private static final int FORMAT_VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int INDEX_ENTRY_BYTES = 28;
+    private static final String INDEX_FILE_NAME = "replays.idx";
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private Path directory;
+    private int maxSegmentBytes;
+    private FileChannel indexChannel;
+    private List<FileChannel> segmentChannels;
+    private List<MappedByteBuffer> segmentMappings;
+
+    // The index in memory: parallel arrays with one slot per replay in the order they were added, and a hash table
+    // on world seed whose chains run through nextWithSameHash
+    private int numberOfReplays;
+    private long[] worldSeeds;
+    private long[] strategyPairKeys;
+    private int[] segmentNumbers;
+    private int[] segmentOffsets;
+    private int[] recordLengths;
+    private int[] nextWithSameHash;
+    private int[] hashHeads;
+
+    private ReplayArchive(Path directory, int maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.segmentChannels = new ArrayList<>();
+        this.segmentMappings = new ArrayList<>();
+        this.numberOfReplays = 0;
+        this.worldSeeds = new long[INITIAL_CAPACITY];
+        this.strategyPairKeys = new long[INITIAL_CAPACITY];
+        this.segmentNumbers = new int[INITIAL_CAPACITY];
+        this.segmentOffsets = new int[INITIAL_CAPACITY];
+        this.recordLengths = new int[INITIAL_CAPACITY];
+        this.nextWithSameHash = new int[INITIAL_CAPACITY];
+        this.hashHeads = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(hashHeads, -1);
+    }
+
+    /**
+     * Opens the archive in a directory, creating the directory and an empty archive if there isn't one yet
+     *
+     * @param directory The directory the archive's files are in
+     * @return The opened archive
+     * @throws IOException If the archive's files can't be read or created, or aren't an archive
+     */
+    public static ReplayArchive open(Path directory) throws IOException {
+        return open(directory, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    /**
+     * Opens the archive in a directory, creating the directory and an empty archive if there isn't one yet
+     *
+     * @param directory The directory the archive's files are in
+     * @param maxSegmentBytes How large a segment can grow before new replays go in a new one
+     * @return The opened archive
+     * @throws IOException If the archive's files can't be read or created, or aren't an archive
+     */
+    public static ReplayArchive open(Path directory, int maxSegmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        ReplayArchive archive = new ReplayArchive(directory, maxSegmentBytes);
+        try {
+            archive.load();
+        } catch(IOException | RuntimeException e) {
+            archive.close();
+            throw e;
+        }
+        return archive;
+    }
+
+    /**
+     * Adds a replay to the end of the archive
+     *
+     * @param replay The replay to add
+     * @param redStrategyName The name of the red player's strategy
+     * @param blueStrategyName The name of the blue player's strategy
+     * @throws IOException If the replay can't be written
+     */
+    public synchronized void append(Replay replay, String redStrategyName, String blueStrategyName)
+            throws IOException {
+        byte[] redName = redStrategyName.getBytes(StandardCharsets.UTF_8);
+        byte[] blueName = blueStrategyName.getBytes(StandardCharsets.UTF_8);
+        if(redName.length > MAX_NAME_BYTES || blueName.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Strategy names in a replay archive are limited to "
+                                               + MAX_NAME_BYTES + " bytes");
+        }
+        byte[] encodedReplay = BinaryReplayFormat.encode(replay);
+        int recordLength = 4 + 8 + 2 + redName.length + 2 + blueName.length + encodedReplay.length;
+
+        ByteBuffer record = ByteBuffer.allocate(recordLength);
+        record.putInt(recordLength - 4);
+        record.putLong(replay.getWorldSeed());
+        record.putShort((short) redName.length);
+        record.put(redName);
+        record.putShort((short) blueName.length);
+        record.put(blueName);
+        record.put(encodedReplay);
+        record.flip();
+
+        int segmentNumber = segmentChannels.size() - 1;
+        FileChannel segment = segmentChannels.get(segmentNumber);
+        if(segment.size() > FILE_HEADER_BYTES && segment.size() + recordLength > maxSegmentBytes) {
+            segmentNumber = segmentChannels.size();
+            segment = openSegment(segmentNumber);
+        }
+
+        int offset = (int) segment.size();
+        writeFully(segment, record, offset);
+        appendIndexEntry(replay.getWorldSeed(), strategyPairKey(redStrategyName, blueStrategyName), segmentNumber,
+                         offset, recordLength, true);
+    }
+
+    /**
+     * Finds the most recently added replay of a world seed played by a pair of strategies
+     *
+     * @param worldSeed The world seed of the replay
+     * @param redStrategyName The name of the red player's strategy
+     * @param blueStrategyName The name of the blue player's strategy
+     * @return The replay, or null if the archive doesn't have one for that seed and pair of strategies
+     */
+    public synchronized Replay find(long worldSeed, String redStrategyName, String blueStrategyName) {
+        long pairKey = strategyPairKey(redStrategyName, blueStrategyName);
+        // Chains run from newest to oldest, so the first match is the most recent
+        for(int i = hashHeads[hashSlot(worldSeed)]; i >= 0; i = nextWithSameHash[i]) {
+            if(worldSeeds[i] != worldSeed || strategyPairKeys[i] != pairKey) {
+                continue;
+            }
+
+            // The pair key is a hash, so make sure these really are the same strategies
+            ArchivedReplay candidate = read(i);
+            if(candidate.getRedStrategyName().equals(redStrategyName)
+                    && candidate.getBlueStrategyName().equals(blueStrategyName)) {
+                return candidate.getReplay();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds every replay of a world seed, whichever strategies played it
+     *
+     * @param worldSeed The world seed of the replays
+     * @return The replays in the order they were added, empty if there are none
+     */
+    public synchronized List<ArchivedReplay> findAll(long worldSeed) {
+        List<Integer> matches = new ArrayList<>();
+        for(int i = hashHeads[hashSlot(worldSeed)]; i >= 0; i = nextWithSameHash[i]) {
+            if(worldSeeds[i] == worldSeed) {
+                matches.add(i);
+            }
+        }
+
+        // Chains run from newest to oldest
+        List<ArchivedReplay> replays = new ArrayList<>(matches.size());
+        for(int i = matches.size() - 1; i >= 0; i--) {
+            replays.add(read(matches.get(i)));
+        }
+        return replays;
+    }
+
+    /**
+     * Reads every replay in the archive in the order they were added
+     *
+     * @param action Called with each replay
+     */
+    public synchronized void forEach(Consumer<ArchivedReplay> action) {
+        for(int i = 0; i < numberOfReplays; i++) {
+            action.accept(read(i));
+        }
+    }
+
+    public synchronized int size() {
+        return numberOfReplays;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException closeFailure = null;
+        List<FileChannel> channels = new ArrayList<>(segmentChannels);
+        if(indexChannel != null) {
+            channels.add(indexChannel);
+        }
+        for(FileChannel channel : channels) {
+            try {
+                channel.close();
+            } catch(IOException e) {
+                closeFailure = e;
+            }
+        }
+        segmentChannels.clear();
+        segmentMappings.clear();
+        indexChannel = null;
+
+        if(closeFailure != null) {
+            throw closeFailure;
+        }
+    }
+
+    private void load() throws IOException {
+        indexChannel = FileChannel.open(directory.resolve(INDEX_FILE_NAME), StandardOpenOption.CREATE,
+                                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+        prepareFile(indexChannel, INDEX_MAGIC, INDEX_FILE_NAME);
+
+        // A torn last entry from a cut off write is dropped, the catch up below adds it back from its segment
+        long numberOfEntries = (indexChannel.size() - FILE_HEADER_BYTES) / INDEX_ENTRY_BYTES;
+        indexChannel.truncate(FILE_HEADER_BYTES + numberOfEntries * INDEX_ENTRY_BYTES);
+        if(numberOfEntries > 0) {
+            MappedByteBuffer entries = indexChannel.map(FileChannel.MapMode.READ_ONLY, FILE_HEADER_BYTES,
+                                                        numberOfEntries * INDEX_ENTRY_BYTES);
+            for(long i = 0; i < numberOfEntries; i++) {
+                appendIndexEntry(entries.getLong(), entries.getLong(), entries.getInt(), entries.getInt(),
+                                 entries.getInt(), false);
+            }
+        }
+
+        for(int segmentNumber = 0; Files.exists(segmentPath(segmentNumber)) || segmentNumber == 0; segmentNumber++) {
+            openSegment(segmentNumber);
+        }
+        catchUpIndex();
+    }
+
+    /**
+     * Indexes any whole records at the end of the last segment that never made it into the index, and cuts off
+     *  anything after them
+     */
+    private void catchUpIndex() throws IOException {
+        int lastSegment = segmentChannels.size() - 1;
+        int position = FILE_HEADER_BYTES;
+        if(numberOfReplays > 0 && segmentNumbers[numberOfReplays - 1] == lastSegment) {
+            position = segmentOffsets[numberOfReplays - 1] + recordLengths[numberOfReplays - 1];
+        }
+
+        FileChannel segment = segmentChannels.get(lastSegment);
+        long segmentSize = segment.size();
+        if(position >= segmentSize) {
+            return;
+        }
+
+        ByteBuffer tail = segment.map(FileChannel.MapMode.READ_ONLY, 0, segmentSize);
+        while(position + 4 <= segmentSize) {
+            int recordLength = 4 + tail.getInt(position);
+            if(recordLength < 4 || position + (long) recordLength > segmentSize) {
+                break;
+            }
+
+            ArchivedReplay record;
+            try {
+                record = readRecord(tail, position, recordLength);
+            } catch(IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException e) {
+                // A record torn part way through or left as garbage by a crash, everything from here on is lost
+                break;
+            }
+            appendIndexEntry(record.getReplay().getWorldSeed(),
+                             strategyPairKey(record.getRedStrategyName(), record.getBlueStrategyName()), lastSegment,
+                             position, recordLength, true);
+            position += recordLength;
+        }
+
+        segment.truncate(position);
+        segmentMappings.set(lastSegment, null);
+    }
+
+    private FileChannel openSegment(int segmentNumber) throws IOException {
+        FileChannel segment = FileChannel.open(segmentPath(segmentNumber), StandardOpenOption.CREATE,
+                                               StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmentChannels.add(segment);
+        segmentMappings.add(null);
+        prepareFile(segment, SEGMENT_MAGIC, segmentPath(segmentNumber).getFileName().toString());
+        return segment;
+    }
+
+    /**
+     * Writes the header of a new file, or checks the header of an existing one
+     */
+    private static void prepareFile(FileChannel file, int magic, String fileName) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        if(file.size() < FILE_HEADER_BYTES) {
+            header.putInt(magic);
+            header.putInt(FORMAT_VERSION);
+            header.flip();
+            file.truncate(0);
+            writeFully(file, header, 0);
+            return;
+        }
+
+        while(header.hasRemaining() && file.read(header, header.position()) >= 0) {
+            // Keep reading until the header is full
+        }
+        header.flip();
+        if(header.getInt() != magic) {
+            throw new IOException(fileName + " isn't part of a replay archive");
+        }
+        int version = header.getInt();
+        if(version != FORMAT_VERSION) {
+            throw new IOException(fileName + " is from unsupported replay archive version " + version);
+        }
+    }
+
+    private void appendIndexEntry(long worldSeed, long pairKey, int segmentNumber, int offset, int recordLength,
+                                  boolean writeToFile) throws IOException {
+        if(writeToFile) {
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+            entry.putLong(worldSeed);
+            entry.putLong(pairKey);
+            entry.putInt(segmentNumber);
+            entry.putInt(offset);
+            entry.putInt(recordLength);
+            entry.flip();
+            writeFully(indexChannel, entry, indexChannel.size());
+        }
+
+        if(numberOfReplays == worldSeeds.length) {
+            growIndex();
+        }
+        int replayNumber = numberOfReplays++;
+        worldSeeds[replayNumber] = worldSeed;
+        strategyPairKeys[replayNumber] = pairKey;
+        segmentNumbers[replayNumber] = segmentNumber;
+        segmentOffsets[replayNumber] = offset;
+        recordLengths[replayNumber] = recordLength;
+        addToHashTable(replayNumber);
+    }
+
+    private void growIndex() {
+        int capacity = worldSeeds.length * 2;
+        worldSeeds = Arrays.copyOf(worldSeeds, capacity);
+        strategyPairKeys = Arrays.copyOf(strategyPairKeys, capacity);
+        segmentNumbers = Arrays.copyOf(segmentNumbers, capacity);
+        segmentOffsets = Arrays.copyOf(segmentOffsets, capacity);
+        recordLengths = Arrays.copyOf(recordLengths, capacity);
+        nextWithSameHash = Arrays.copyOf(nextWithSameHash, capacity);
+
+        // Keep the table at most half full
+        hashHeads = new int[capacity * 2];
+        Arrays.fill(hashHeads, -1);
+        for(int i = 0; i < numberOfReplays; i++) {
+            addToHashTable(i);
+        }
+    }
+
+    private void addToHashTable(int replayNumber) {
+        int slot = hashSlot(worldSeeds[replayNumber]);
+        nextWithSameHash[replayNumber] = hashHeads[slot];
+        hashHeads[slot] = replayNumber;
+    }
+
+    private int hashSlot(long worldSeed) {
+        // Seeds are often small consecutive numbers, so mix them before taking the low bits
+        long mixed = worldSeed * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & (hashHeads.length - 1);
+    }
+
+    private ArchivedReplay read(int replayNumber) {
+        return readRecord(mappedSegment(segmentNumbers[replayNumber], segmentOffsets[replayNumber]
+                                                                     + recordLengths[replayNumber]),
+                          segmentOffsets[replayNumber], recordLengths[replayNumber]);
+    }
+
+    private static ArchivedReplay readRecord(ByteBuffer segment, int offset, int recordLength) {
+        ByteBuffer record = segment.duplicate();
+        record.limit(offset + recordLength).position(offset + 4 + 8);
+        String redStrategyName = readName(record);
+        String blueStrategyName = readName(record);
+        Replay replay = BinaryReplayFormat.decode(record);
+        return new ArchivedReplay(redStrategyName, blueStrategyName, replay);
+    }
+
+    private static String readName(ByteBuffer record) {
+        byte[] name = new byte[record.getShort() & 0xFFFF];
+        record.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets a mapping of a segment that covers at least its first minimumBytes bytes. The last segment keeps
+     *  growing, so its mapping is replaced whenever a read goes past the end of it
+     */
+    private MappedByteBuffer mappedSegment(int segmentNumber, int minimumBytes) {
+        MappedByteBuffer mapping = segmentMappings.get(segmentNumber);
+        if(mapping == null || mapping.capacity() < minimumBytes) {
+            try {
+                FileChannel segment = segmentChannels.get(segmentNumber);
+                mapping = segment.map(FileChannel.MapMode.READ_ONLY, 0, segment.size());
+            } catch(IOException e) {
+                throw new UncheckedIOException("Couldn't map replay archive segment " + segmentNumber, e);
+            }
+            segmentMappings.set(segmentNumber, mapping);
+        }
+        return mapping;
+    }
+
+    private Path segmentPath(int segmentNumber) {
+        return directory.resolve(String.format("replays-%05d.seg", segmentNumber));
+    }
+
+    private static long strategyPairKey(String redStrategyName, String blueStrategyName) {
+        return ((long) redStrategyName.hashCode() << 32) | (blueStrategyName.hashCode() & 0xFFFFFFFFL);
+    }
+
+    private static void writeFully(FileChannel file, ByteBuffer data, long position) throws IOException {
+        while(data.hasRemaining()) {
+            position += file.write(data, position);
+        }
+    }
+}
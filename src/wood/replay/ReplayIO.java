@@ -1,10 +1,11 @@
 package wood.replay;
 
 import wood.game.GameEngine;
+import wood.game.TurnAction;
 import wood.strategy.WoodPlayerStrategy;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.List;
 
 public class ReplayIO {
     /**
@@ -18,11 +19,11 @@ public class ReplayIO {
 
         try {
             gameReplay = Replay.decodeReplayFile(replayFilePath);
-        } catch (FileNotFoundException e) {
-            System.err.println("Could not locate the replay file at the given path");
+        } catch (IOException e) {
+            System.err.println("Could not read the replay file at the given path");
             e.printStackTrace();
             return null;
-        } catch (NumberFormatException e) {
+        } catch (IllegalArgumentException e) {
             System.err.println("There was an issue decoding the replay file");
             e.printStackTrace();
             return null;
@@ -38,16 +39,54 @@ public class ReplayIO {
         return replayEngine;
     }
 
+    /**
+     * Sets up a game as it was at the start of a turn of a replayed match, starting from the last keyframe at or
+     *  before that turn and playing the replay's actions from there, so seeking anywhere costs at most one keyframe
+     *  interval of turns. Replays without keyframes are played from the first turn
+     *
+     * @param replay The replay of the match
+     * @param turn The turn to seek to, from 0 up to the number of turns both players have actions for
+     * @return A game with no strategies at the start of the turn, to be stepped with advanceTurn or looked at
+     */
+    public static GameEngine setupEngineAtTurn(Replay replay, int turn) {
+        List<TurnAction> redActions = replay.getRedPlayerActions();
+        List<TurnAction> blueActions = replay.getBluePlayerActions();
+        int lastTurn = Math.min(redActions.size(), blueActions.size());
+        if(turn < 0 || turn > lastTurn) {
+            throw new IllegalArgumentException("Turn " + turn + " isn't between 0 and " + lastTurn);
+        }
+
+        GameEngine engine;
+        int keyframeInterval = replay.getKeyframeInterval();
+        int keyframeNumber = 0;
+        if(keyframeInterval > 0) {
+            keyframeNumber = Math.min(turn / keyframeInterval, replay.getKeyframes().size());
+        }
+        if(keyframeNumber > 0) {
+            engine = GameEngine.restoreKeyframe(replay.getKeyframes().get(keyframeNumber - 1));
+        } else {
+            engine = new GameEngine(replay.getBoardSize(), null, null, replay.getWorldSeed());
+            engine.setHeadless(true);
+        }
+
+        while(engine.getTurnNumber() < turn) {
+            int turnToPlay = engine.getTurnNumber();
+            engine.advanceTurn(redActions.get(turnToPlay), blueActions.get(turnToPlay));
+        }
+        return engine;
+    }
+
     /**
      * Writes a Replay object, probably retrieved from the GameEngine, to a file so it can be watched again in
-     *  the future. This will overwrite a file if a file already exists at the specified path
+     *  the future. The file is written in BinaryReplayFormat, which decodeReplayFile reads alongside the older
+     *  text format. This will overwrite a file if a file already exists at the specified path
      *
      * @param replayToWrite The Replay object to write to a replay file
      * @param replayFilePath The file path at which to write the replay file
      */
     public static void writeReplayToFile(Replay replayToWrite, String replayFilePath) {
         try {
-            Replay.encodeReplayFile(replayToWrite, replayFilePath);
+            Replay.encodeBinaryReplayFile(replayToWrite, replayFilePath);
         } catch (IOException e) {
             System.err.println("There was an error encoding the game replay");
             e.printStackTrace();
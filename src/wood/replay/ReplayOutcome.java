@@ -0,0 +1,57 @@
+package wood.replay;
+
+/**
+ * What a replayed match ended up as when it was first played: both final scores, the final state hash, and a
+ *  digest of the state after every turn, see GameEngine.getStateHash. Replaying the match on a changed engine
+ *  should reproduce all of it, and the first turn whose digest differs is where the engines went different ways
+ */
+public class ReplayOutcome {
+    private int redScore;
+    private int blueScore;
+    private long finalStateHash;
+    private int[] turnDigests;
+
+    /**
+     * @param redScore The red player's final score, -1 if red threw an exception
+     * @param blueScore The blue player's final score, -1 if blue threw an exception
+     * @param finalStateHash The state hash once the match ended
+     * @param turnDigests The digest of the state hash after each turn both players finished, see digest
+     */
+    public ReplayOutcome(int redScore, int blueScore, long finalStateHash, int[] turnDigests) {
+        this.redScore = redScore;
+        this.blueScore = blueScore;
+        this.finalStateHash = finalStateHash;
+        this.turnDigests = turnDigests;
+    }
+
+    /**
+     * Shortens a state hash to the 32 bits kept for every turn. Any change to the state changes about half the bits
+     *  of the hash, so two states that differ still only share a digest once in four billion turns, and the final
+     *  state is compared with the full hash anyway
+     *
+     * @param stateHash A hash from GameEngine.getStateHash
+     * @return The digest of the hash
+     */
+    public static int digest(long stateHash) {
+        return (int) (stateHash ^ (stateHash >>> 32));
+    }
+
+    public int getRedScore() {
+        return redScore;
+    }
+
+    public int getBlueScore() {
+        return blueScore;
+    }
+
+    public long getFinalStateHash() {
+        return finalStateHash;
+    }
+
+    /**
+     * @return The digest of the state after each finished turn, where entry t is the state at the end of turn t
+     */
+    public int[] getTurnDigests() {
+        return turnDigests;
+    }
+}
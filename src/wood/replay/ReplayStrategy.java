@@ -6,13 +6,13 @@ import wood.strategy.PlayerBoardView;
 import wood.strategy.WoodPlayerStrategy;
 
 import java.awt.*;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
 import java.util.Random;
 
 public class ReplayStrategy implements WoodPlayerStrategy {
     private Replay gameToReplay;
-    private Queue<TurnAction> actionsToReplay;
+    private List<TurnAction> actionsToReplay;
+    private int nextAction;
     private boolean exceptionThrown;
     private boolean isRedPlayer;
 
@@ -24,24 +24,28 @@ public class ReplayStrategy implements WoodPlayerStrategy {
     public void initialize(int boardSize, int maxInventorySize, int winningScore, Point startTileLocation,
                            boolean isRedPlayer, Random random) {
         if(isRedPlayer) {
-            actionsToReplay = new LinkedList<>(gameToReplay.getRedPlayerActions());
+            actionsToReplay = gameToReplay.getRedPlayerActions();
             exceptionThrown = gameToReplay.redThrewException();
         } else {
-            actionsToReplay = new LinkedList<>(gameToReplay.getBluePlayerActions());
+            actionsToReplay = gameToReplay.getBluePlayerActions();
             exceptionThrown = gameToReplay.blueThrewException();
         }
 
+        this.nextAction = 0;
         this.isRedPlayer = isRedPlayer;
     }
 
     @Override
     public TurnAction getTurnAction(PlayerBoardView boardView, boolean isRedTurn) {
-        if(actionsToReplay.size() == 0 && exceptionThrown) {
+        if(nextAction == actionsToReplay.size() && exceptionThrown) {
             String exceptionPlayer = isRedPlayer ? "Red" : "Blue";
             throw new RuntimeException("An exception from the " + exceptionPlayer + " Player happened on this turn");
         }
 
-        return actionsToReplay.poll();
+        if(nextAction == actionsToReplay.size()) {
+            return null;
+        }
+        return actionsToReplay.get(nextAction++);
     }
 
     @Override
@@ -0,0 +1,98 @@
+package wood.replay;
+
+/**
+ * What ReplayVerifier found when it played a replay again: whether the game still turns out the way it was
+ *  recorded, and if not, the first turn where it stopped doing so
+ */
+public class ReplayVerification {
+    public enum Status {
+        /** Every turn and the final scores came out the same as recorded */
+        MATCHED,
+        /** The replay played out differently from how it was recorded */
+        DIVERGED,
+        /** The replay doesn't record how it turned out, so there was nothing to check it against */
+        NO_OUTCOME
+    }
+
+    private long worldSeed;
+    private String redStrategyName;
+    private String blueStrategyName;
+    private Status status;
+    private int firstDivergentTurn;
+    private int recordedRedScore;
+    private int recordedBlueScore;
+    private int replayedRedScore;
+    private int replayedBlueScore;
+
+    public ReplayVerification(long worldSeed, String redStrategyName, String blueStrategyName, Status status,
+                              int firstDivergentTurn, int recordedRedScore, int recordedBlueScore,
+                              int replayedRedScore, int replayedBlueScore) {
+        this.worldSeed = worldSeed;
+        this.redStrategyName = redStrategyName;
+        this.blueStrategyName = blueStrategyName;
+        this.status = status;
+        this.firstDivergentTurn = firstDivergentTurn;
+        this.recordedRedScore = recordedRedScore;
+        this.recordedBlueScore = recordedBlueScore;
+        this.replayedRedScore = replayedRedScore;
+        this.replayedBlueScore = replayedBlueScore;
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    /**
+     * @return The name of the red strategy for replays from a ReplayArchive, null otherwise
+     */
+    public String getRedStrategyName() {
+        return redStrategyName;
+    }
+
+    /**
+     * @return The name of the blue strategy for replays from a ReplayArchive, null otherwise
+     */
+    public String getBlueStrategyName() {
+        return blueStrategyName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return The first turn (counting from 0) whose state differed from the recording, the number of turns played
+     *          if only the end of the game differed, or -1 if nothing differed
+     */
+    public int getFirstDivergentTurn() {
+        return firstDivergentTurn;
+    }
+
+    public int getRecordedRedScore() {
+        return recordedRedScore;
+    }
+
+    public int getRecordedBlueScore() {
+        return recordedBlueScore;
+    }
+
+    public int getReplayedRedScore() {
+        return replayedRedScore;
+    }
+
+    public int getReplayedBlueScore() {
+        return replayedBlueScore;
+    }
+
+    @Override
+    public String toString() {
+        String players = (redStrategyName == null) ? "" : " (" + redStrategyName + " vs " + blueStrategyName + ")";
+        switch (status) {
+            case MATCHED: return "Seed " + worldSeed + players + " matched";
+            case NO_OUTCOME: return "Seed " + worldSeed + players + " has no recorded outcome";
+            default: return "Seed " + worldSeed + players + " first diverged on turn " + firstDivergentTurn
+                            + ", recorded " + recordedRedScore + " to " + recordedBlueScore + ", replayed "
+                            + replayedRedScore + " to " + replayedBlueScore;
+        }
+    }
+}
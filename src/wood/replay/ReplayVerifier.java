@@ -0,0 +1,240 @@
+package wood.replay;
+
+import wood.game.GameEngine;
+import wood.game.TurnAction;
+import wood.game.WoodPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays replays again on the engine as it is now and checks that they still turn out the way they were recorded,
+ *  for making sure engine changes haven't changed how games play out. Replays are played headless with
+ *  advanceTurn, so nothing paces them and no strategies are run, and many are played at once across a
+ *  work-stealing pool. The state after every turn is compared with the digest recorded for it, see ReplayOutcome,
+ *  so a replay that plays out differently is reported with the first turn it went wrong on. Only replays of games
+ *  played with GameEngine.setOutcomeRecorded record an outcome, the rest are reported as having none
+ */
+public class ReplayVerifier {
+    // Replays vary in length as much as matches do, so they're split up as finely as TournamentRunner splits matches
+    private static final int REPLAYS_PER_TASK = 4;
+
+    private int parallelism;
+
+    public ReplayVerifier() {
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Sets how many worker threads play replays at the same time
+     *
+     * @param parallelism The number of worker threads to use, must be at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Verifies every replay in an archive, see verifyAll
+     *
+     * @param replayArchive The archive to verify the replays of
+     * @return What was found for each replay, in the order the archive holds them
+     */
+    public List<ReplayVerification> verifyArchive(ReplayArchive replayArchive) {
+        List<ArchivedReplay> archivedReplays = new ArrayList<>(replayArchive.size());
+        replayArchive.forEach(archivedReplays::add);
+        return verify(archivedReplays);
+    }
+
+    /**
+     * Plays every replay again and checks each against the outcome it recorded, spreading the replays across a
+     *  work-stealing pool
+     *
+     * @param replays The replays to verify
+     * @return What was found for each replay, in the order the replays were given
+     */
+    public List<ReplayVerification> verifyAll(List<Replay> replays) {
+        List<ArchivedReplay> unnamedReplays = new ArrayList<>(replays.size());
+        for(int i = 0; i < replays.size(); i++) {
+            unnamedReplays.add(new ArchivedReplay(null, null, replays.get(i)));
+        }
+        return verify(unnamedReplays);
+    }
+
+    private List<ReplayVerification> verify(List<ArchivedReplay> replays) {
+        ArchivedReplay[] toVerify = replays.toArray(new ArchivedReplay[0]);
+        ReplayVerification[] verifications = new ReplayVerification[toVerify.length];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new VerifyRangeTask(toVerify, verifications, 0, toVerify.length));
+        } finally {
+            pool.shutdown();
+        }
+        return Arrays.asList(verifications);
+    }
+
+    /**
+     * Plays one replay again and checks it against the outcome it recorded. A strategy that throws an exception
+     *  ends the game part way through its turn, and that half-played turn can't be played without finishing it, so
+     *  only the scores are compared for it rather than the whole state. The action a strategy threw during, whether
+     *  from getTurnAction or from receiveItem while the action was being applied, is never in the replay, so the
+     *  half-played turn is always the one where the players have different numbers of actions
+     *
+     * @param replay The replay to verify
+     * @return What was found, with no strategy names
+     */
+    public static ReplayVerification verify(Replay replay) {
+        return verify(replay, null, null);
+    }
+
+    private static ReplayVerification verify(Replay replay, String redStrategyName, String blueStrategyName) {
+        ReplayOutcome recorded = replay.getOutcome();
+        if(recorded == null) {
+            return new ReplayVerification(replay.getWorldSeed(), redStrategyName, blueStrategyName,
+                                          ReplayVerification.Status.NO_OUTCOME, -1, 0, 0, 0, 0);
+        }
+
+        List<TurnAction> redActions = replay.getRedPlayerActions();
+        List<TurnAction> blueActions = replay.getBluePlayerActions();
+        int finishedTurns = Math.min(redActions.size(), blueActions.size());
+        int[] recordedDigests = recorded.getTurnDigests();
+        GameEngine engine = new GameEngine(replay.getBoardSize(), null, null, replay.getWorldSeed());
+        engine.setHeadless(true);
+
+        int firstDivergentTurn = -1;
+        for(int turn = 0; turn < finishedTurns; turn++) {
+            engine.advanceTurn(redActions.get(turn), blueActions.get(turn));
+            if(firstDivergentTurn < 0 && (turn >= recordedDigests.length
+                                          || ReplayOutcome.digest(engine.getStateHash()) != recordedDigests[turn])) {
+                firstDivergentTurn = turn;
+            }
+        }
+        if(firstDivergentTurn < 0 && recordedDigests.length > finishedTurns) {
+            // The recording finished turns the replay has no actions for
+            firstDivergentTurn = finishedTurns;
+        }
+
+        boolean turnLeftHalfPlayed = redActions.size() != blueActions.size();
+        if(turnLeftHalfPlayed) {
+            TurnAction lastRedAction = (redActions.size() > finishedTurns) ? redActions.get(finishedTurns) : null;
+            TurnAction lastBlueAction = (blueActions.size() > finishedTurns) ? blueActions.get(finishedTurns) : null;
+            engine.advanceTurn(lastRedAction, lastBlueAction);
+        }
+        markExceptionThrown(engine.getRedPlayer(), replay.redThrewException());
+        markExceptionThrown(engine.getBluePlayer(), replay.blueThrewException());
+
+        boolean scoresMatch = engine.getRedPlayerScore() == recorded.getRedScore()
+                              && engine.getBluePlayerScore() == recorded.getBlueScore();
+        boolean finalStateMatches = turnLeftHalfPlayed || engine.getStateHash() == recorded.getFinalStateHash();
+        if(firstDivergentTurn < 0 && !(scoresMatch && finalStateMatches)) {
+            firstDivergentTurn = finishedTurns;
+        }
+
+        ReplayVerification.Status status = (firstDivergentTurn < 0) ? ReplayVerification.Status.MATCHED
+                                                                    : ReplayVerification.Status.DIVERGED;
+        return new ReplayVerification(replay.getWorldSeed(), redStrategyName, blueStrategyName, status,
+                                      firstDivergentTurn, recorded.getRedScore(), recorded.getBlueScore(),
+                                      engine.getRedPlayerScore(), engine.getBluePlayerScore());
+    }
+
+    private static void markExceptionThrown(WoodPlayer player, boolean threwException) {
+        if(threwException) {
+            // Same as the engine does to a strategy that throws
+            player.setScore(-1);
+        }
+    }
+
+    /**
+     * Prints how many replays matched, diverged or couldn't be checked, followed by every replay that diverged
+     *
+     * @param verifications The verifications to report on
+     * @param output Where to print the report
+     */
+    public static void printReport(List<ReplayVerification> verifications, PrintStream output) {
+        int matched = 0;
+        int diverged = 0;
+        int noOutcome = 0;
+        for(int i = 0; i < verifications.size(); i++) {
+            switch (verifications.get(i).getStatus()) {
+                case MATCHED: matched++;
+                              break;
+                case DIVERGED: diverged++;
+                               break;
+                default: noOutcome++;
+            }
+        }
+
+        output.println("Verified " + verifications.size() + " replays: " + matched + " matched, " + diverged
+                       + " diverged, " + noOutcome + " had no recorded outcome");
+        for(int i = 0; i < verifications.size(); i++) {
+            if(verifications.get(i).getStatus() == ReplayVerification.Status.DIVERGED) {
+                output.println(verifications.get(i));
+            }
+        }
+    }
+
+    /**
+     * Verifies every replay in the given replay files and ReplayArchive directories, printing a report
+     *
+     * @param args The paths of replay files and archive directories to verify
+     */
+    public static void main(String[] args) throws IOException {
+        List<ReplayVerification> verifications = new ArrayList<>();
+        List<Replay> replayFiles = new ArrayList<>();
+        ReplayVerifier verifier = new ReplayVerifier();
+        for(String path : args) {
+            if(new File(path).isDirectory()) {
+                try(ReplayArchive replayArchive = ReplayArchive.open(Paths.get(path))) {
+                    verifications.addAll(verifier.verifyArchive(replayArchive));
+                }
+            } else {
+                replayFiles.add(Replay.decodeReplayFile(path));
+            }
+        }
+        verifications.addAll(verifier.verifyAll(replayFiles));
+
+        printReport(verifications, System.out);
+    }
+
+    private class VerifyRangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private ArchivedReplay[] replays;
+        private ReplayVerification[] verifications;
+        private int start;
+        private int end;
+
+        VerifyRangeTask(ArchivedReplay[] replays, ReplayVerification[] verifications, int start, int end) {
+            this.replays = replays;
+            this.verifications = verifications;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start <= REPLAYS_PER_TASK) {
+                for(int i = start; i < end; i++) {
+                    ArchivedReplay archivedReplay = replays[i];
+                    verifications[i] = verify(archivedReplay.getReplay(), archivedReplay.getRedStrategyName(),
+                                              archivedReplay.getBlueStrategyName());
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new VerifyRangeTask(replays, verifications, start, middle),
+                      new VerifyRangeTask(replays, verifications, middle, end));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package wood.replay;
+
+import wood.game.TurnAction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a replay while its game is being played, in version 2 of BinaryReplayFormat. Each turn's actions are
+ *  packed into a block in memory, and a full block is written out every TURNS_PER_BLOCK turns, so a game that never
+ *  finishes, because the worker playing it crashed or was killed, still leaves behind every block written before
+ *  it stopped. BinaryReplayFormat.decodePartial reads those. Recording a turn is a few shifts and never allocates
+ *
+ * A GameEngine given a recorder with setReplayRecorder starts, records and finishes it. If writing fails the
+ *  recorder prints the problem and stops recording, it never interrupts the game it is recording
+ */
+public class StreamingReplayRecorder implements AutoCloseable {
+    // 64 turns of 6 bits each is 48 bytes, which keeps a cut off game's loss small without writing too often
+    public static final int TURNS_PER_BLOCK = 64;
+
+    private static final int MAX_VARINT_BYTES = 10;
+    private static final int BITS_PER_TURN = 2 * BinaryReplayFormat.BITS_PER_ACTION;
+
+    private WritableByteChannel channel;
+    private ByteBuffer output;
+    private CRC32 checksum;
+    private long packedTurns;
+    private int numberOfPackedBits;
+    private byte[] blockBytes;
+    private int blockByteCount;
+    private int turnsInBlock;
+    private int pendingRedCode;
+    private int pendingBlueCode;
+    private boolean started;
+    private boolean finished;
+    private IOException writeFailure;
+
+    /**
+     * Creates a recorder that writes to a new file, replacing any file already at the path
+     *
+     * @param replayFilePath Where to write the replay
+     * @throws IOException If the file can't be created
+     */
+    public StreamingReplayRecorder(Path replayFilePath) throws IOException {
+        this(FileChannel.open(replayFilePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                              StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Creates a recorder that writes to a channel, which it closes when the replay is finished
+     *
+     * @param channel Where to write the replay
+     */
+    public StreamingReplayRecorder(WritableByteChannel channel) {
+        this.channel = channel;
+        this.output = ByteBuffer.allocate(BinaryReplayFormat.MAGIC.length + 1 + 2 * MAX_VARINT_BYTES
+                                          + (TURNS_PER_BLOCK * BITS_PER_TURN + 7) / 8
+                                          + BinaryReplayFormat.CHECKSUM_BYTES);
+        this.checksum = new CRC32();
+        this.blockBytes = new byte[(TURNS_PER_BLOCK * BITS_PER_TURN + 7) / 8];
+        this.pendingRedCode = -1;
+        this.pendingBlueCode = -1;
+        this.started = false;
+        this.finished = false;
+        this.writeFailure = null;
+    }
+
+    /**
+     * Writes the replay's header, called by the engine before the first turn
+     *
+     * @param boardSize The size of the board being played on
+     * @param worldSeed The world seed of the game
+     */
+    public void start(int boardSize, long worldSeed) {
+        if(started) {
+            throw new IllegalStateException("A recorder can only record one game");
+        }
+        started = true;
+
+        output.clear();
+        output.put(BinaryReplayFormat.MAGIC);
+        output.put((byte) BinaryReplayFormat.STREAMED_VERSION);
+        BinaryReplayFormat.writeVarint(output, boardSize);
+        BinaryReplayFormat.writeVarint(output, BinaryReplayFormat.zigzag(worldSeed));
+        writeSection();
+    }
+
+    /**
+     * Records one player's action for the current turn. The players can act in either order, the turn is packed
+     *  once both have acted
+     *
+     * @param isRedPlayer True if the red player took the action
+     * @param action The action taken, or null if the player did nothing
+     */
+    public void recordAction(boolean isRedPlayer, TurnAction action) {
+        if(isRedPlayer) {
+            pendingRedCode = BinaryReplayFormat.actionCode(action);
+        } else {
+            pendingBlueCode = BinaryReplayFormat.actionCode(action);
+        }
+
+        if(pendingRedCode >= 0 && pendingBlueCode >= 0) {
+            packTurn(pendingRedCode | (pendingBlueCode << BinaryReplayFormat.BITS_PER_ACTION));
+            pendingRedCode = -1;
+            pendingBlueCode = -1;
+        }
+    }
+
+    /**
+     * Writes out whatever is left along with the trailer and closes the channel. A turn that only one player got
+     *  to act in, because the other threw an exception, is recorded as that player's extra action
+     *
+     * @param redThrewException True if the game ended because the red player threw an exception
+     * @param blueThrewException True if the game ended because the blue player threw an exception
+     */
+    public void finish(boolean redThrewException, boolean blueThrewException) {
+        if(finished) {
+            return;
+        }
+        finished = true;
+
+        writeBlock();
+
+        output.clear();
+        BinaryReplayFormat.writeVarint(output, 0);
+        int exceptionMarkers = (redThrewException ? BinaryReplayFormat.RED_THREW_EXCEPTION : 0)
+                               | (blueThrewException ? BinaryReplayFormat.BLUE_THREW_EXCEPTION : 0);
+        output.put((byte) exceptionMarkers);
+        if(pendingRedCode >= 0) {
+            output.put((byte) BinaryReplayFormat.EXTRA_RED_ACTION);
+            output.put((byte) pendingRedCode);
+        } else if(pendingBlueCode >= 0) {
+            output.put((byte) BinaryReplayFormat.EXTRA_BLUE_ACTION);
+            output.put((byte) pendingBlueCode);
+        } else {
+            output.put((byte) BinaryReplayFormat.NO_EXTRA_ACTION);
+        }
+        writeSection();
+
+        close();
+    }
+
+    /**
+     * @return The exception that stopped recording, or null if every write so far has succeeded
+     */
+    public IOException getWriteFailure() {
+        return writeFailure;
+    }
+
+    /**
+     * Closes the channel without writing the trailer, leaving a replay that only decodePartial can read. Use
+     *  finish to end a replay normally
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch(IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    private void packTurn(int turnBits) {
+        packedTurns |= (long) turnBits << numberOfPackedBits;
+        numberOfPackedBits += BITS_PER_TURN;
+        while(numberOfPackedBits >= 8) {
+            blockBytes[blockByteCount++] = (byte) packedTurns;
+            packedTurns >>>= 8;
+            numberOfPackedBits -= 8;
+        }
+
+        turnsInBlock++;
+        if(turnsInBlock == TURNS_PER_BLOCK) {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() {
+        if(turnsInBlock == 0) {
+            return;
+        }
+
+        if(numberOfPackedBits > 0) {
+            blockBytes[blockByteCount++] = (byte) packedTurns;
+        }
+
+        output.clear();
+        BinaryReplayFormat.writeVarint(output, turnsInBlock);
+        output.put(blockBytes, 0, blockByteCount);
+        writeSection();
+
+        packedTurns = 0;
+        numberOfPackedBits = 0;
+        blockByteCount = 0;
+        turnsInBlock = 0;
+    }
+
+    /**
+     * Adds the checksum of everything in the output buffer and writes it all to the channel
+     */
+    private void writeSection() {
+        if(writeFailure != null) {
+            return;
+        }
+
+        checksum.reset();
+        checksum.update(output.array(), 0, output.position());
+        output.putInt((int) checksum.getValue());
+        output.flip();
+        try {
+            while(output.hasRemaining()) {
+                channel.write(output);
+            }
+        } catch(IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    private void recordFailure(IOException e) {
+        if(writeFailure == null) {
+            writeFailure = e;
+            System.err.println("There was an error recording the game replay, the rest of the game won't be recorded");
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package wood.strategy;
+
+import wood.game.TurnAction;
+
+/**
+ * A private copy of the game a strategy can play ahead in to try out moves, such as for a search that plays out
+ *  rollouts, see PlayerBoardView.startSimulation. Nothing done to a simulation affects the real game. The copy only
+ *  knows what the strategy does: the other player carries nothing, and when they're out of sight they're placed on
+ *  their start tile. Seeds and trees other than the one your player is standing on are given stand-in values, since
+ *  a strategy only ever sees the value of the tile it's on, so a tree cut in a simulation is worth what a tree of
+ *  its size is expected to be rather than what it's really worth. Seeds that respawn in a simulation are drawn from
+ *  its own random numbers, so a simulation can't tell a strategy where seeds are really going to appear
+ */
+public interface GameSimulation {
+    /**
+     * Plays one turn in the same order a real turn would: whichever player goes first this turn acts first, then
+     *  the other, then trees grow
+     *
+     * @param yourAction The TurnAction your player takes, or null to do nothing
+     * @param otherPlayerAction The TurnAction you expect the other player to take, or null to do nothing
+     */
+    void advanceTurn(TurnAction yourAction, TurnAction otherPlayerAction);
+
+    /**
+     * @return An independent copy of this simulation as it is right now, for trying out several different moves
+     *          from the same turn
+     */
+    GameSimulation fork();
+
+    /**
+     * @return What your player would be shown of the simulated board, the same as the view the engine hands your
+     *          strategy on a real turn
+     */
+    PlayerBoardView getBoardView();
+
+    int getYourScore();
+
+    int getOtherPlayerScore();
+
+    int getTurnNumber();
+
+    /**
+     * @return True if the red player acts first on the simulated turn
+     */
+    boolean isRedTurn();
+
+    /**
+     * @return True once the simulated game has played the maximum number of turns or a player has won
+     */
+    boolean isGameOver();
+}
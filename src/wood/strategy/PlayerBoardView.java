@@ -4,21 +4,67 @@ import wood.tiles.TileType;
 import wood.util.DistanceUtilities;
 
 import java.awt.*;
+import java.util.List;
 
 public class PlayerBoardView {
-    private TileType[][] tiles;
-    private Point thisPlayerLocation;
-    private Point otherPlayerLocation;
+    private TileTypeSource tiles;
+    private int thisPlayerX;
+    private int thisPlayerY;
+    private boolean otherPlayerLocationKnown;
+    private int otherPlayerX;
+    private int otherPlayerY;
     private int otherPlayerScore;
     private int currentTileValue;
+    private SimulationSource simulationSource;
+    private int viewNumber;
 
     public PlayerBoardView(TileType[][] tiles, Point thisPlayerLocation, Point otherPlayerLocation,
                            int otherPlayerScore, int currentTileValue) {
+        this(new TileTypeArray(tiles), thisPlayerLocation, otherPlayerLocation, otherPlayerScore, currentTileValue);
+    }
+
+    public PlayerBoardView(TileTypeSource tiles, Point thisPlayerLocation, Point otherPlayerLocation,
+                           int otherPlayerScore, int currentTileValue) {
+        this.tiles = tiles;
+        this.thisPlayerX = thisPlayerLocation.x;
+        this.thisPlayerY = thisPlayerLocation.y;
+        this.otherPlayerLocationKnown = (otherPlayerLocation != null);
+        if(otherPlayerLocationKnown) {
+            this.otherPlayerX = otherPlayerLocation.x;
+            this.otherPlayerY = otherPlayerLocation.y;
+        }
+        this.otherPlayerScore = otherPlayerScore;
+        this.currentTileValue = currentTileValue;
+        this.simulationSource = null;
+        this.viewNumber = 0;
+    }
+
+    /**
+     * Makes a view from the players' coordinates, so the engine doesn't have to make Points for a view every turn
+     *
+     * @param tiles The tile types the view reads from
+     * @param thisPlayerX The x coordinate of the player receiving the view
+     * @param thisPlayerY The y coordinate of the player receiving the view
+     * @param otherPlayerX The x coordinate of the other player
+     * @param otherPlayerY The y coordinate of the other player
+     * @param otherPlayerScore The score of the other player
+     * @param currentTileValue The value of the tile the player receiving the view is standing on
+     * @param simulationSource Starts simulations for startSimulation, or null if there's no game to simulate
+     * @param viewNumber Which view of the game this is, passed back to the simulation source
+     */
+    public PlayerBoardView(TileTypeSource tiles, int thisPlayerX, int thisPlayerY, int otherPlayerX, int otherPlayerY,
+                           int otherPlayerScore, int currentTileValue, SimulationSource simulationSource,
+                           int viewNumber) {
         this.tiles = tiles;
-        this.thisPlayerLocation = thisPlayerLocation;
-        this.otherPlayerLocation = otherPlayerLocation;
+        this.thisPlayerX = thisPlayerX;
+        this.thisPlayerY = thisPlayerY;
+        this.otherPlayerLocationKnown = true;
+        this.otherPlayerX = otherPlayerX;
+        this.otherPlayerY = otherPlayerY;
         this.otherPlayerScore = otherPlayerScore;
         this.currentTileValue = currentTileValue;
+        this.simulationSource = simulationSource;
+        this.viewNumber = viewNumber;
     }
 
     /**
@@ -39,40 +85,89 @@ public class PlayerBoardView {
      * @return The type of tile at the (x, y) Cartesian coordinates, or null if the coordinates are outside the board
      */
     public TileType getTileTypeAtLocation(int x, int y) {
-        // The index on the board, and the Cartesian coordinates are mirror opposites in the y direction
-        int xIndex = x;
-        int yIndex = (tiles.length - 1) - y;
-
-        boolean xIndexInBounds = (xIndex >= 0 && xIndex < tiles.length);
-        boolean yIndexInBounds = (yIndex >= 0 && yIndex < tiles.length);
-        if(xIndexInBounds && yIndexInBounds) {
-            return tiles[yIndex][xIndex];
+        int boardSize = tiles.getSize();
+        boolean xInBounds = (x >= 0 && x < boardSize);
+        boolean yInBounds = (y >= 0 && y < boardSize);
+        if(xInBounds && yInBounds) {
+            return tiles.getTileType(x, y);
         }
 
         return null;
     }
 
+    /**
+     * Counts the tiles of a type on the whole board
+     *
+     * @param type The type of tile to count
+     * @return How many tiles of that type are on the board
+     */
+    public int getTileCount(TileType type) {
+        return tiles.countTiles(type);
+    }
+
+    /**
+     * Finds the tile of a type closest to your player by manhattan distance. If several tiles are equally close,
+     *  the one with the lowest x coordinate wins, then the one with the lowest y coordinate
+     *
+     * @param type The type of tile to find
+     * @return The location of the closest tile of that type, or null if there are none on the board
+     */
+    public Point getClosestTileOfType(TileType type) {
+        return tiles.findClosestTile(thisPlayerX, thisPlayerY, type);
+    }
+
+    /**
+     * Finds the tiles of a type closest to your player, ordered by manhattan distance with ties broken the same
+     *  way as getClosestTileOfType
+     *
+     * @param type The type of tile to find
+     * @param maxTiles The most locations to return
+     * @return The locations of up to maxTiles tiles of that type, closest first
+     */
+    public List<Point> getClosestTilesOfType(TileType type, int maxTiles) {
+        return tiles.findClosestTiles(thisPlayerX, thisPlayerY, type, maxTiles);
+    }
+
+    /**
+     * Lists the tiles whose type might be different now than in a view from an earlier turn, so a strategy that
+     *  keeps its own copy of the board can bring it up to date without looking at every tile. A tile that changed
+     *  and then changed back can still be listed, and so can a tile listed already
+     *
+     * @param earlierView A view handed to your strategy earlier in the same game
+     * @return The row-major indices (y * size + x) of the tiles that might have changed, or null if this view can't
+     *          tell, like a view made from tiles or a view from a different game, in which case any tile might have
+     */
+    public int[] getTilesChangedSince(PlayerBoardView earlierView) {
+        return tiles.findTilesChangedSince(earlierView.tiles);
+    }
+
     /**
      * Gives you your location so you don't have to keep track of when you actually successfully move or not
      *
-     * @return A Point representing your player's location, (0, 0) is the bottom left of the board
+     * @return A new Point representing your player's location, (0, 0) is the bottom left of the board
      */
     public Point getYourLocation() {
-        return this.thisPlayerLocation;
+        return new Point(thisPlayerX, thisPlayerY);
     }
 
     /**
      * Gets the other player's exact location but only if they are within viewing range of your player.
      *
-     * @return A Point representing your opponent's location, or null if they are outside viewing range
+     * @return A new Point representing your opponent's location, or null if they are outside viewing range
      */
     public Point getOtherPlayerLocation() {
+        if(!otherPlayerLocationKnown) {
+            // Views rebuilt outside the engine are only given the other player's location when it can be seen
+            return null;
+        }
+
         // The player can see ~1/3rd of the length and width of the board
-        int maxViewDistance = tiles.length / 3;
+        int maxViewDistance = tiles.getSize() / 3;
 
-        int distanceToOtherPlayer = DistanceUtilities.getManhattanDistance(thisPlayerLocation, otherPlayerLocation);
+        int distanceToOtherPlayer = DistanceUtilities.getManhattanDistance(thisPlayerX, thisPlayerY, otherPlayerX,
+                                                                           otherPlayerY);
         if(distanceToOtherPlayer <= maxViewDistance) {
-            return otherPlayerLocation;
+            return new Point(otherPlayerX, otherPlayerY);
         }
 
         // Too far away to see :(
@@ -98,4 +193,38 @@ public class PlayerBoardView {
     public int getCurrentTileValue() {
         return this.currentTileValue;
     }
+
+    /**
+     * Starts a simulation of the game from the turn this view was made for, which can be played ahead to see how
+     *  different moves would turn out, see GameSimulation. A simulation can only be started while deciding the turn
+     *  the view was handed over for, since the game has moved on after that
+     *
+     * @return A new simulation of the game, or null if this view wasn't made by a game, like a view made from tiles
+     * @throws IllegalStateException If the turn this view was handed over for has already been decided
+     */
+    public GameSimulation startSimulation() {
+        if(simulationSource == null) {
+            return null;
+        }
+        return simulationSource.startSimulation(viewNumber);
+    }
+
+    private static class TileTypeArray implements TileTypeSource {
+        private TileType[][] tiles;
+
+        TileTypeArray(TileType[][] tiles) {
+            this.tiles = tiles;
+        }
+
+        @Override
+        public int getSize() {
+            return tiles.length;
+        }
+
+        @Override
+        public TileType getTileType(int x, int y) {
+            // The index on the board, and the Cartesian coordinates are mirror opposites in the y direction
+            return tiles[(tiles.length - 1) - y][x];
+        }
+    }
 }
\ No newline at end of file
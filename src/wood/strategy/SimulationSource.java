@@ -0,0 +1,15 @@
+package wood.strategy;
+
+/**
+ * Starts the simulations PlayerBoardView.startSimulation hands out. The engine keeps one for each player for the
+ *  whole game, and each view only remembers which number view it is, so handing out a view every turn doesn't
+ *  need anything made for it beyond the view itself
+ */
+public interface SimulationSource {
+    /**
+     * @param viewNumber The number of the view the simulation is being started from
+     * @return A new simulation of the game from the turn the view was made for
+     * @throws IllegalStateException If the turn the view was made for has already been decided
+     */
+    GameSimulation startSimulation(int viewNumber);
+}
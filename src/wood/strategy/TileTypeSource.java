@@ -0,0 +1,110 @@
+package wood.strategy;
+
+import wood.tiles.TileType;
+import wood.util.DistanceUtilities;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read-only access to the tile types of a square board, used by PlayerBoardView so the engine can hand
+ *  strategies its board without copying it every turn. The counting and searching methods scan the whole board by
+ *  default, sources that keep track of where each type of tile is can answer them faster
+ */
+public interface TileTypeSource {
+    /**
+     * @return The length and width of the square board
+     */
+    int getSize();
+
+    /**
+     * Gets the type of tile at the specified (x, y) coordinates, (0, 0) is the bottom left of the board.
+     *  Callers are expected to have already checked the coordinates are on the board
+     *
+     * @param x The x coordinate of the tile to get
+     * @param y The y coordinate of the tile to get
+     * @return The type of tile at the (x, y) Cartesian coordinates
+     */
+    TileType getTileType(int x, int y);
+
+    /**
+     * @param type The type of tile to count
+     * @return How many tiles of the type are on the board
+     */
+    default int countTiles(TileType type) {
+        int count = 0;
+        for(int x = 0; x < getSize(); x++) {
+            for(int y = 0; y < getSize(); y++) {
+                if(getTileType(x, y) == type) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the tile of a type with the smallest manhattan distance from a location. Ties go to the tile with the
+     *  lowest x coordinate, then the lowest y coordinate
+     *
+     * @param fromX The x coordinate to measure distances from
+     * @param fromY The y coordinate to measure distances from
+     * @param type The type of tile to find
+     * @return The location of the closest tile of the type, or null if there are no tiles of that type
+     */
+    default Point findClosestTile(int fromX, int fromY, TileType type) {
+        Point closestTile = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for(int x = 0; x < getSize(); x++) {
+            for(int y = 0; y < getSize(); y++) {
+                int distance = DistanceUtilities.getManhattanDistance(x, y, fromX, fromY);
+                if(getTileType(x, y) == type && distance < closestDistance) {
+                    closestTile = new Point(x, y);
+                    closestDistance = distance;
+                }
+            }
+        }
+        return closestTile;
+    }
+
+    /**
+     * Finds up to maxTiles tiles of a type ordered by manhattan distance from a location, with ties ordered the
+     *  same way as findClosestTile
+     *
+     * @param fromX The x coordinate to measure distances from
+     * @param fromY The y coordinate to measure distances from
+     * @param type The type of tile to find
+     * @param maxTiles The most tiles to return
+     * @return The locations of the closest tiles of the type, closest first
+     */
+    default List<Point> findClosestTiles(int fromX, int fromY, TileType type, int maxTiles) {
+        List<Point> tilesOfType = new ArrayList<>();
+        for(int x = 0; x < getSize(); x++) {
+            for(int y = 0; y < getSize(); y++) {
+                if(getTileType(x, y) == type) {
+                    tilesOfType.add(new Point(x, y));
+                }
+            }
+        }
+
+        // The sort is stable, so tiles at the same distance stay in the order they were scanned
+        tilesOfType.sort(Comparator.comparingInt(tile -> DistanceUtilities.getManhattanDistance(tile.x, tile.y,
+                                                                                                fromX, fromY)));
+        return new ArrayList<>(tilesOfType.subList(0, Math.min(maxTiles, tilesOfType.size())));
+    }
+
+    /**
+     * Lists the tiles that might be a different type now than in a source of the same board handed out earlier,
+     *  for a caller that keeps its own copy of the board and only wants to look at what changed. By default a
+     *  source can't tell, sources that keep track of how the board changes can
+     *
+     * @param earlierSource A source of the same board handed out before this one
+     * @return The row-major indices (y * size + x) of every tile that might have changed, or null if any tile might
+     *          have
+     */
+    default int[] findTilesChangedSince(TileTypeSource earlierSource) {
+        return null;
+    }
+}
@@ -1,34 +1,20 @@
 package wood.tiles;
 
-import wood.game.WoodPlayer;
-import wood.game.TurnAction;
-import wood.item.InventoryItem;
-import wood.item.ItemType;
-
-import java.awt.*;
-
 public class EmptyTile extends GrassTile {
+    private static final EmptyTile instance = new EmptyTile();
 
-    public EmptyTile(Point tileLocation) {
-        super(tileLocation);
+    private EmptyTile() {
     }
 
-    @Override
-    public TileType getType() {
-        return TileType.EMPTY;
+    /**
+     * @return The EmptyTile shared by every empty location, empty tiles have nothing that differs between them
+     */
+    public static EmptyTile getInstance() {
+        return instance;
     }
 
     @Override
-    public Tile interact(WoodPlayer playerOnTile, TurnAction actionOnTile) {
-        if (actionOnTile == TurnAction.PLANT_SEED) {
-            InventoryItem firstSeed = playerOnTile.removeFirstItemOfType(ItemType.SEED);
-
-            if (firstSeed != null) {
-                // Player has a seed, plant it
-                return new TreeTile(this.location, firstSeed.getValue());
-            }
-        }
-
-        return this;
+    public TileType getType() {
+        return TileType.EMPTY;
     }
 }
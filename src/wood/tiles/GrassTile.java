@@ -5,39 +5,33 @@ import wood.graphics.ImageManager;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class GrassTile extends Tile {
     private static final int MAX_BOARD_SIZE_FOR_GRADIENT = 30;
 
-    protected GrassTile(Point tileLocation) {
-        super(tileLocation);
+    protected GrassTile() {
     }
 
     @Override
-    protected List<Image> getImageOverlays(ImageManager imageManager) {
+    protected List<Image> getImageOverlays(ImageManager imageManager, int x, int y) {
         // The background forms a gradient of green, get the color of this part of the gradient
-        String locationBackgroundImageName = this.location.x + "_" + location.y + "_background";
+        String locationBackgroundImageName = x + "_" + y + "_background";
         if(!imageManager.hasScaledImageWithName(locationBackgroundImageName)) {
-            int greenProportion = location.x - location.y; // Make the background a gradient of green
-            if(greenProportion > MAX_BOARD_SIZE_FOR_GRADIENT) {
-                greenProportion = 0; // At board sizes this big it honestly doesn't matter
-            }
-
-            Color greenShade = new Color(0, greenProportion * 3 + 162, 0);
-            ImageIcon backgroundImage = imageManager.generateBackgroundImageIcon(greenShade);
+            ImageIcon backgroundImage = imageManager.generateBackgroundImageIcon(getGradientShade(x, y));
             imageManager.addImageFromIcon(locationBackgroundImageName, backgroundImage);
         }
 
         // Get the randomly generated grass overlay
-        String locationGrassImageName = this.location.x + "_" + location.y + "_grass";
+        String locationGrassImageName = x + "_" + y + "_grass";
         if(!imageManager.hasScaledImageWithName(locationGrassImageName)) {
             ImageIcon randomGrass = createRandomGrassOverlay(imageManager.getImageWidth(), imageManager.getImageHeight());
             imageManager.addImageFromIcon(locationGrassImageName, randomGrass);
         }
 
-        List<Image> overlays = new LinkedList<>();
+        // Room for the overlay a seed or tree puts on top
+        List<Image> overlays = new ArrayList<>(3);
         Image grassBackground = imageManager.getScaledImage(locationBackgroundImageName);
         Image randomGrassOverlay = imageManager.getScaledImage(locationGrassImageName);
 
@@ -46,19 +40,56 @@ public abstract class GrassTile extends Tile {
         return overlays;
     }
 
+    /**
+     * Paints the grass at a location the same way paint does, but straight onto the brush without caching an image
+     *  for the location in the ImageManager. A display that draws the grass once into a background image for the
+     *  whole game only needs each location once, and caching them would keep two images per location alive for as
+     *  long as the ImageManager is
+     *
+     * @param brush The Graphics object on which to paint the grass
+     * @param x The x coordinate of the board location to paint
+     * @param y The y coordinate of the board location to paint
+     * @param boardSize The size of the board for use in finding the starting point on the screen to paint
+     * @param imageManager The ImageManager whose image size the grass is painted at
+     */
+    public void paintGrass(Graphics2D brush, int x, int y, int boardSize, ImageManager imageManager) {
+        int imageWidth = imageManager.getImageWidth();
+        int imageHeight = imageManager.getImageHeight();
+        Point screenIndex = getScreenIndexFromLocation(x, y, imageWidth, imageHeight, boardSize);
+
+        // Clipped to the location, the same as the grass overlay is cut off at the edge of its image
+        Graphics2D locationBrush = (Graphics2D) brush.create(screenIndex.x, screenIndex.y, imageWidth, imageHeight);
+        locationBrush.setColor(getGradientShade(x, y));
+        locationBrush.fillRect(0, 0, imageWidth, imageHeight);
+        drawRandomGrass(locationBrush, imageWidth, imageHeight);
+        locationBrush.dispose();
+    }
+
+    private static Color getGradientShade(int x, int y) {
+        int greenProportion = x - y; // Make the background a gradient of green
+        if(Math.abs(greenProportion) > MAX_BOARD_SIZE_FOR_GRADIENT) {
+            greenProportion = 0; // At board sizes this big it honestly doesn't matter
+        }
+        return new Color(0, greenProportion * 3 + 162, 0);
+    }
+
     private ImageIcon createRandomGrassOverlay(int imageWidth, int imageHeight) {
         BufferedImage bufferedImage = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
         Graphics2D imageBrush = bufferedImage.createGraphics();
+        drawRandomGrass(imageBrush, imageWidth, imageHeight);
+        imageBrush.dispose();
+
+        return new ImageIcon(bufferedImage);
+    }
 
+    private static void drawRandomGrass(Graphics2D brush, int imageWidth, int imageHeight) {
         for(int i = 0; i < 50; i++) {
             Color randomGreenShade = new Color(0, (int) (Math.random() * 100) + 100, 0);
-            imageBrush.setColor(randomGreenShade);
+            brush.setColor(randomGreenShade);
 
             int randomX = (int) (Math.random() * imageWidth);
             int randomY = (int) (Math.random() * imageHeight);
-            imageBrush.fillRect(randomX, randomY, 2, 4);
+            brush.fillRect(randomX, randomY, 2, 4);
         }
-
-        return new ImageIcon(bufferedImage);
     }
 }
@@ -1,55 +1,74 @@
 package wood.tiles;
 
 import wood.game.WoodPlayer;
-import wood.game.TurnAction;
 import wood.graphics.ImageManager;
-import wood.item.InventoryItem;
-import wood.item.SeedItem;
 import wood.util.DistanceUtilities;
 
 import java.awt.*;
 import java.util.List;
 
 public class SeedTile extends GrassTile {
-    private int initialValue;
-    private double redValueMultiplier;
-    private double blueValueMultiplier;
+    private final int initialValue;
+    private final double redValueMultiplier;
+    private final double blueValueMultiplier;
 
+    /**
+     * Creates a seed tile for a location on the board, the location is only used to work out what the seed is
+     *  worth to each player
+     *
+     * @param tileLocation The location of the seed on the board
+     * @param initialValue The seed's value before multipliers
+     * @param redStartLocation The location of the red player's start tile
+     * @param blueStartLocation The location of the blue player's start tile
+     * @param boardSize The size of the board
+     */
     public SeedTile(Point tileLocation, int initialValue, Point redStartLocation, Point blueStartLocation, int boardSize) {
-        super(tileLocation);
+        this(initialValue,
+             computeValueMultiplier(DistanceUtilities.getManhattanDistance(tileLocation, redStartLocation), boardSize),
+             computeValueMultiplier(DistanceUtilities.getManhattanDistance(tileLocation, blueStartLocation), boardSize));
+    }
+
+    /**
+     * @param initialValue The seed's value before multipliers
+     * @param redValueMultiplier The multiplier for the seed's value to the red player, see computeValueMultiplier
+     * @param blueValueMultiplier The multiplier for the seed's value to the blue player
+     */
+    public SeedTile(int initialValue, double redValueMultiplier, double blueValueMultiplier) {
         this.initialValue = initialValue;
-        redValueMultiplier = computeTileValueMultiplier(redStartLocation, boardSize);
-        blueValueMultiplier = computeTileValueMultiplier(blueStartLocation, boardSize);
+        this.redValueMultiplier = redValueMultiplier;
+        this.blueValueMultiplier = blueValueMultiplier;
     }
 
-    private double computeTileValueMultiplier(Point otherLocation, int boardSize) {
-        int manhattanDistance = DistanceUtilities.getManhattanDistance(this.location, otherLocation);
+    /**
+     * Computes the multiplier applied to a seed's initial value for a player, seeds further from that player's
+     *  start tile are worth more to them
+     *
+     * @param manhattanDistance The manhattan distance between the seed and the player's start tile
+     * @param boardSize The size of the board
+     * @return The multiplier to apply to the seed's initial value
+     */
+    public static double computeValueMultiplier(int manhattanDistance, int boardSize) {
         return (4.0 * boardSize) / ((5.0 * boardSize) - (2.1 * manhattanDistance));
     }
 
+    public int getInitialValue() {
+        return initialValue;
+    }
+
     @Override
     public TileType getType() {
         return TileType.SEED;
     }
 
     @Override
-    public Tile interact(WoodPlayer playerOnTile, TurnAction actionOnTile) {
-        if (actionOnTile == TurnAction.PICK_UP) {
-            int pointValueForPlayer = getPointValueForPlayer(playerOnTile);
-            InventoryItem seedItem = new SeedItem(pointValueForPlayer);
-            playerOnTile.addItemToInventory(seedItem);
-
-            return new EmptyTile(this.location);
-        }
-
-        return this;
+    public String getForegroundSpriteName() {
+        return "seed";
     }
 
     @Override
-    protected List<Image> getImageOverlays(ImageManager imageManager) {
-        List<Image> grassOverlays = super.getImageOverlays(imageManager);
-        Image treeOverlay = imageManager.getScaledImage("seed");
-        grassOverlays.add(treeOverlay);
+    protected List<Image> getImageOverlays(ImageManager imageManager, int x, int y) {
+        List<Image> grassOverlays = super.getImageOverlays(imageManager, x, y);
+        grassOverlays.add(imageManager.getScaledImage(getForegroundSpriteName()));
 
         return grassOverlays;
     }
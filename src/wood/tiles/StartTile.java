@@ -1,48 +1,41 @@
 package wood.tiles;
 
-import wood.game.WoodPlayer;
 import wood.graphics.ImageManager;
-import wood.item.InventoryItem;
-import wood.item.ItemType;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 public class StartTile extends Tile {
-    boolean isRedStartTile;
+    private static final StartTile redStartTile = new StartTile(true);
+    private static final StartTile blueStartTile = new StartTile(false);
 
-    public StartTile(Point tileLocation, boolean isRedStartTile) {
-        super(tileLocation);
+    private final boolean isRedStartTile;
+
+    private StartTile(boolean isRedStartTile) {
         this.isRedStartTile = isRedStartTile;
     }
 
-    @Override
-    public TileType getType() {
-        return TileType.START;
+    /**
+     * @param isRedStartTile True for the red player's start tile, false for the blue player's
+     * @return The StartTile shared by every board for that player
+     */
+    public static StartTile getInstance(boolean isRedStartTile) {
+        return isRedStartTile ? redStartTile : blueStartTile;
     }
 
-    @Override
-    public void onEnter(WoodPlayer playerEnteringTile) {
-        super.onEnter(playerEnteringTile);
-
-        boolean redPlayerOnRedStart = isRedStartTile && playerEnteringTile.isRedPlayer();
-        boolean bluePlayerOnBlueStart = !isRedStartTile && !playerEnteringTile.isRedPlayer();
-        if(!redPlayerOnRedStart && !bluePlayerOnBlueStart) {
-            // Wrong start tile for this player, don't do anything
-            return;
-        }
+    public boolean isRedStartTile() {
+        return isRedStartTile;
+    }
 
-        InventoryItem woodFromInventory = playerEnteringTile.removeFirstItemOfType(ItemType.WOOD);
-        while (woodFromInventory != null) {
-            playerEnteringTile.addToScore(woodFromInventory.getValue());
-            woodFromInventory = playerEnteringTile.removeFirstItemOfType(ItemType.WOOD);
-        }
+    @Override
+    public TileType getType() {
+        return TileType.START;
     }
 
     @Override
-    protected List<Image> getImageOverlays(ImageManager imageManager) {
+    protected List<Image> getImageOverlays(ImageManager imageManager, int x, int y) {
         String backgroundTileName = isRedStartTile ? "red_start" : "blue_start";
 
         if(!imageManager.hasScaledImageWithName(backgroundTileName)) {
@@ -51,7 +44,7 @@ public class StartTile extends Tile {
             imageManager.addImageFromIcon(backgroundTileName, backgroundImage);
         }
 
-        List<Image> startTileOverlays = new LinkedList<>();
+        List<Image> startTileOverlays = new ArrayList<>(2);
         startTileOverlays.add(imageManager.getScaledImage(backgroundTileName));
         startTileOverlays.add(imageManager.getScaledImage("house"));
         return startTileOverlays;
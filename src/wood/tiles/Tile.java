@@ -1,27 +1,17 @@
 package wood.tiles;
 
 import wood.game.WoodPlayer;
-import wood.game.TurnAction;
 import wood.graphics.ImageManager;
 
 import java.awt.*;
 import java.util.List;
 
+/**
+ * What a tile of the board is and how to draw it. Tiles don't know where they are, the board passes in the location
+ *  when one is needed, so tiles without any state of their own (like empty tiles) can be shared by every location
+ */
 public abstract class Tile {
-    WoodPlayer playerOnTile;
-    Point location;
-
-    protected Tile(Point tileLocation) {
-        this.playerOnTile = null;
-        this.location = tileLocation;
-    }
-
-    public WoodPlayer getPlayerOnTile() {
-        return playerOnTile;
-    }
-
-    public Point getLocation() {
-        return location;
+    protected Tile() {
     }
 
     /**
@@ -29,27 +19,6 @@ public abstract class Tile {
      */
     public abstract TileType getType();
 
-    /**
-     * Called when an action is performed on a Tile by a player to determine
-     *   A. What happens for that action and B. What changes are made to the Tile as a result of that action
-     *
-     * @param playerOnTile The player performing the action on this tile
-     * @param actionOnTile The TurnAction being performed on this tile
-     * @return A Tile representing what the Tile at this location on the game board should be set to after this turn.
-     *          Return this Tile if no change should happen
-     *          Return a new Tile of the next type if the action does result in a change on the tile
-     */
-    public Tile interact(WoodPlayer playerOnTile, TurnAction actionOnTile) {
-        return this;
-    }
-
-    /**
-     * Called every turn for tiles to update their internal state
-     */
-    public void update() {
-        // By default tiles don't do anything
-    }
-
     /**
      * Gets the point value of this Tile (most likely corresponding to the item you get from an action on the tile)
      * This value may or may not change based on what player is passed in
@@ -62,67 +31,60 @@ public abstract class Tile {
     }
 
     /**
-     * Called when a player enters this tile on a turn
+     * Gets the List of Images that encodes how to render this Tile
+     * Images later in the List will be rendered on top of Images earlier in the List
      *
-     * @param playerEnteringTile The player entering the tile
+     * @param imageManager The ImageManager object that manages all images for the JPanel component rendering this Tile
+     * @param x The x coordinate of the location this Tile is being rendered at
+     * @param y The y coordinate of the location this Tile is being rendered at
+     * @return The List of Images in order of rendering on top of each other
      */
-    public void onEnter(WoodPlayer playerEnteringTile) {
-        playerOnTile = playerEnteringTile;
-    }
+    protected abstract List<Image> getImageOverlays(ImageManager imageManager, int x, int y);
 
     /**
-     * Called when a player exits a tile on a turn. The player parameter is somewhat redundant,
+     * Gets the name of the sprite drawn on top of the grass for tiles that change during a game, like a seed or a
+     *  tree, see ImageManager.drawSprite. Everything else about a location, including start tiles, stays the same
+     *  the whole game, so a display can draw it once and only draw foregrounds over it as tiles change
      *
-     * @param playerExitingTile The player leaving the tile.
+     * @return The name of the sprite to draw over the location's background, or null if there is nothing to draw
      */
-    public void onExit(WoodPlayer playerExitingTile) {
-        playerOnTile = null;
+    public String getForegroundSpriteName() {
+        return null;
     }
 
-    /**
-     * Gets the List of Images that encodes how to render this Tile
-     * Images later in the List will be rendered on top of Images earlier in the List
-     *
-     * @param imageManager The ImageManager object that manages all images for the JPanel component rendering this Tile
-     * @return The List of Images in order of rendering on top of each other
-     */
-    protected abstract List<Image> getImageOverlays(ImageManager imageManager);
-
     /**
      * Specifies how to render this Tile on the Graphics object passed in
      *
      * @param brush The Graphics object on which to render this Tile
+     * @param x The x coordinate of the board location to render this Tile at
+     * @param y The y coordinate of the board location to render this Tile at
      * @param boardSize The size of the board for use in finding the starting point on the screen to render
      * @param imageManager The ImageManager object that manages all images for the JPanel component rendering this Tile
      */
-    public void paint(Graphics2D brush, int boardSize, ImageManager imageManager) {
+    public void paint(Graphics2D brush, int x, int y, int boardSize, ImageManager imageManager) {
         int imageWidth = imageManager.getImageWidth();
         int imageHeight = imageManager.getImageHeight();
-        Point screenIndex = this.getScreenIndexFromLocation(imageWidth, imageHeight, boardSize);
+        Point screenIndex = getScreenIndexFromLocation(x, y, imageWidth, imageHeight, boardSize);
 
         // Draw overlays
-        for(Image overlayToDraw : this.getImageOverlays(imageManager)) {
+        for(Image overlayToDraw : this.getImageOverlays(imageManager, x, y)) {
             brush.drawImage(overlayToDraw, screenIndex.x, screenIndex.y, null);
         }
-
-        // Draw players if they're standing on this tile
-        if(playerOnTile != null) {
-            Image playerImage = playerOnTile.getImage(imageManager);
-            brush.drawImage(playerImage, screenIndex.x, screenIndex.y, null);
-        }
     }
 
     /**
-     * Computes the (x, y) coordinates of the pixel on the screen corresponding to the top left of this Tile
+     * Computes the (x, y) coordinates of the pixel on the screen corresponding to the top left of a board location
      *
+     * @param x The x coordinate of the location on the board
+     * @param y The y coordinate of the location on the board
      * @param imageWidth The width of the image to be rendered
      * @param imageHeight The height of the image to be rendered
      * @param boardSize The size of the board
      * @return The (x, y) coordinates on the screen of the top left image pixel
      */
-    protected Point getScreenIndexFromLocation(int imageWidth, int imageHeight, int boardSize) {
-        int xScreenIndex = this.location.x * imageWidth;
-        int yScreenIndex = ((boardSize - 1) - location.y) * imageHeight;
+    protected static Point getScreenIndexFromLocation(int x, int y, int imageWidth, int imageHeight, int boardSize) {
+        int xScreenIndex = x * imageWidth;
+        int yScreenIndex = ((boardSize - 1) - y) * imageHeight;
         return new Point(xScreenIndex, yScreenIndex);
     }
 }
@@ -1,10 +1,7 @@
 package wood.tiles;
 
 import wood.game.WoodPlayer;
-import wood.game.TurnAction;
 import wood.graphics.ImageManager;
-import wood.item.InventoryItem;
-import wood.item.WoodItem;
 
 import java.awt.*;
 import java.util.List;
@@ -13,11 +10,10 @@ public class TreeTile extends GrassTile {
     private static final int[] treeGrowthMilestones = new int[]{50, 100, 200, Integer.MAX_VALUE};
     private static final String[] treeImageNames = new String[]{"tree_small", "tree_medium", "tree_large", "tree_massive"};
 
-    protected int woodValue;
+    protected final int woodValue;
 
-    public TreeTile(Point tileLocation, int initialWoodValue) {
-        super(tileLocation);
-        this.woodValue = initialWoodValue;
+    public TreeTile(int woodValue) {
+        this.woodValue = woodValue;
     }
 
     @Override
@@ -25,35 +21,49 @@ public class TreeTile extends GrassTile {
         return TileType.TREE;
     }
 
-    @Override
-    public Tile interact(WoodPlayer playerOnTile, TurnAction actionOnTile) {
-        if (actionOnTile == TurnAction.CUT_TREE) {
-            InventoryItem cutWoodItem = new WoodItem(woodValue);
-            playerOnTile.addItemToInventory(cutWoodItem);
+    public int getWoodValue() {
+        return woodValue;
+    }
 
-            return new EmptyTile(this.location);
+    /**
+     * Gets which size a tree is drawn at, trees are drawn bigger as they grow past each milestone
+     *
+     * @param woodValue The wood value of the tree
+     * @return The growth stage, from 0 for the smallest tree up
+     */
+    public static int getGrowthStage(int woodValue) {
+        int treeGrowthStage = 0;
+        while(woodValue > treeGrowthMilestones[treeGrowthStage]) {
+            treeGrowthStage++;
         }
+        return treeGrowthStage;
+    }
 
-        return this;
+    /**
+     * Gets a stand-in wood value for a tree when only its size is known: halfway between the milestones either side
+     *  of its growth stage, or the last milestone for trees that have grown past all of them
+     *
+     * @param growthStage The growth stage of the tree, see getGrowthStage
+     * @return The wood value to assume the tree has
+     */
+    public static int getExpectedWoodValue(int growthStage) {
+        int lowerMilestone = (growthStage == 0) ? 0 : treeGrowthMilestones[growthStage - 1];
+        int upperMilestone = treeGrowthMilestones[growthStage];
+        if(upperMilestone == Integer.MAX_VALUE) {
+            return lowerMilestone;
+        }
+        return (lowerMilestone + upperMilestone) / 2;
     }
 
     @Override
-    public void update() {
-        this.woodValue += 1;
+    public String getForegroundSpriteName() {
+        return treeImageNames[getGrowthStage(woodValue)];
     }
 
     @Override
-    protected List<Image> getImageOverlays(ImageManager imageManager) {
-        List<Image> grassOverlays = super.getImageOverlays(imageManager);
-
-        // Find what stage of growth the tree is at
-        int treeGrowthStage = 0;
-        while(this.woodValue > treeGrowthMilestones[treeGrowthStage]) {
-            treeGrowthStage++;
-        }
-
-        Image treeOverlay = imageManager.getScaledImage(treeImageNames[treeGrowthStage]);
-        grassOverlays.add(treeOverlay);
+    protected List<Image> getImageOverlays(ImageManager imageManager, int x, int y) {
+        List<Image> grassOverlays = super.getImageOverlays(imageManager, x, y);
+        grassOverlays.add(imageManager.getScaledImage(getForegroundSpriteName()));
         return grassOverlays;
     }
 